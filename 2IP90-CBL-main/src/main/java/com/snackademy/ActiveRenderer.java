@@ -0,0 +1,161 @@
+package snackademy;
+
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferStrategy;
+import javax.swing.Icon;
+import javax.swing.JLabel;
+
+/**
+ * Active-rendering backend for the game panel.
+ * <p>
+ * Instead of letting Swing repaint one JLabel per sprite, this canvas draws the
+ * background, bookshelves, desk, snackstation, player and librarian itself once
+ * per frame into a page-flipped {@link BufferStrategy}. The sprite labels keep
+ * their bounds and icons, but are hidden and only used as the source of what
+ * to draw and where.
+ */
+public class ActiveRenderer extends Canvas {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Number of buffers used for page flipping. */
+    private static final int BUFFER_COUNT = 2;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Background image drawn behind all sprites, cached at display size. */
+    private final BackgroundCache background;
+
+    /** Sprites that are depth-sorted by their Y coordinate. */
+    private final JLabel[] sprites;
+
+    /** Sprite that is always drawn on top (the librarian). */
+    private final JLabel topSprite;
+
+    /** Overlay drawn after all sprites. */
+    private final DebugOverlayPanel overlay;
+
+    /** Receives the frame and paint times. */
+    private final PerformanceMonitor monitor;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs an ActiveRenderer.
+     *
+     * @param background the cache holding the background image
+     * @param sprites the sprite labels to draw sorted by their Y coordinate
+     * @param topSprite the sprite label that is always drawn last
+     * @param overlay the debug overlay drawn on top of the scene
+     * @param monitor receives the frame and paint times
+     */
+    public ActiveRenderer(BackgroundCache background, JLabel[] sprites, JLabel topSprite,
+                          DebugOverlayPanel overlay, PerformanceMonitor monitor) {
+        this.background = background;
+        this.sprites = sprites;
+        this.topSprite = topSprite;
+        this.overlay = overlay;
+        this.monitor = monitor;
+
+        // All drawing happens in render(), never through AWT repaint requests
+        setIgnoreRepaint(true);
+    }
+
+    // -------------------------------------------------------------------------
+    // Rendering
+    // -------------------------------------------------------------------------
+
+    /**
+     * Draws one complete frame and shows it. Does nothing while the canvas is
+     * not displayable or has no size yet.
+     */
+    public void render() {
+        if (!isDisplayable() || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            createBufferStrategy(BUFFER_COUNT);
+            strategy = getBufferStrategy();
+        }
+
+        sortSprites();
+
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    drawFrame((Graphics2D) g);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        monitor.recordFrame(System.nanoTime() - start);
+    }
+
+    /**
+     * Draws the background, the sprites and the overlay.
+     *
+     * @param g the graphics context of the back buffer
+     */
+    private void drawFrame(Graphics2D g) {
+        g.drawImage(
+            background.getImage(getGraphicsConfiguration(), getWidth(), getHeight()),
+            0, 0, null
+        );
+
+        for (JLabel sprite : sprites) {
+            drawSprite(g, sprite);
+        }
+        drawSprite(g, topSprite);
+
+        overlay.paintOverlay(g);
+    }
+
+    /**
+     * Draws the icon of a sprite label centered in its bounds, like JLabel does.
+     *
+     * @param g the graphics context
+     * @param sprite the sprite label to draw
+     */
+    private void drawSprite(Graphics2D g, JLabel sprite) {
+        Icon icon = sprite.getIcon();
+        if (icon == null) {
+            return;
+        }
+        int x = sprite.getX() + (sprite.getWidth() - icon.getIconWidth()) / 2;
+        int y = sprite.getY() + (sprite.getHeight() - icon.getIconHeight()) / 2;
+        icon.paintIcon(this, g, x, y);
+    }
+
+    /**
+     * Sorts the sprites by ascending Y so that lower sprites are drawn on top.
+     * Insertion sort is used because the order barely changes between frames.
+     */
+    private void sortSprites() {
+        for (int i = 1; i < sprites.length; i++) {
+            JLabel current = sprites[i];
+            int y = current.getY();
+            int j = i - 1;
+            while (j >= 0 && sprites[j].getY() > y) {
+                sprites[j + 1] = sprites[j];
+                j--;
+            }
+            sprites[j + 1] = current;
+        }
+    }
+}
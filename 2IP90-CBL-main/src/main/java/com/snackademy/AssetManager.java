@@ -0,0 +1,157 @@
+package snackademy;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+/**
+ * Loads and shares the decoded images of Snackademy.
+ * <p>
+ * At startup {@link #preloadAll(IntConsumer, Runnable)} decodes every image in
+ * parallel on a small worker pool. Game objects then get the shared decoded
+ * images through {@link #getImage(String)} instead of decoding their own copy.
+ */
+public final class AssetManager {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Resource folder containing all game images. */
+    public static final String RESOURCE_PATH = "/snackademy/resources/";
+
+    /** File names of all images that are preloaded at startup. */
+    private static final String[] IMAGE_NAMES = {
+        "Background.png",
+        "Bookshelves.png",
+        "desk.png",
+        "snackstation.png",
+        "librarianInattentive.png",
+        "librarianTransition.png",
+        "librarianAttentive.png",
+        "Standing.png",
+        "LeftFoot.png",
+        "RightFoot.png",
+        "SnacksStanding.png",
+        "SnacksLeftFoot.png",
+        "SnacksRightFoot.png"
+    };
+
+    // -------------------------------------------------------------------------
+    // Static Variables
+    // -------------------------------------------------------------------------
+
+    /** Decoded images by file name. */
+    private static final Map<String, BufferedImage> IMAGES = new ConcurrentHashMap<>();
+
+    /** Private constructor: this class only has static members. */
+    private AssetManager() {
+    }
+
+    // -------------------------------------------------------------------------
+    // Preloading
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the number of images that {@link #preloadAll} decodes.
+     *
+     * @return the number of preloaded images
+     */
+    public static int getPreloadCount() {
+        return IMAGE_NAMES.length;
+    }
+
+    /**
+     * Decodes all game images in parallel on a worker pool.
+     * <p>
+     * Both callbacks are run on the Event Dispatch Thread. A failing image is
+     * reported on standard error and decoded again on first use; it still
+     * counts as processed, so {@code onDone} runs whatever fails.
+     *
+     * @param onProgress receives the number of images decoded so far
+     * @param onDone run once all images have been processed
+     */
+    public static void preloadAll(IntConsumer onProgress, Runnable onDone) {
+        int threads = Math.min(IMAGE_NAMES.length, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger finished = new AtomicInteger();
+        for (String name : IMAGE_NAMES) {
+            pool.execute(() -> {
+                try {
+                    getImage(name);
+                } catch (IllegalStateException e) {
+                    System.err.println(e.getMessage());
+                } catch (RuntimeException e) {
+                    System.err.println("Error preloading " + name + ": " + e.getMessage());
+                    e.printStackTrace();
+                } finally {
+                    // Count every image, even after an error, so onDone always runs
+                    int done = finished.incrementAndGet();
+                    SwingUtilities.invokeLater(() -> onProgress.accept(done));
+                    if (done == IMAGE_NAMES.length) {
+                        SwingUtilities.invokeLater(onDone);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the shared decoded image with the given file name. Images that
+     * were not preloaded are decoded on first use.
+     *
+     * @param name file name of the image inside the resource folder
+     * @return the decoded image
+     * @throws IllegalStateException if the image cannot be found or read
+     */
+    public static BufferedImage getImage(String name) {
+        BufferedImage img = IMAGES.get(name);
+        if (img == null) {
+            // Decode outside the map so parallel loads never block each other
+            BufferedImage decoded = decode(name);
+            img = IMAGES.putIfAbsent(name, decoded);
+            if (img == null) {
+                img = decoded;
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Decodes an image from the resource folder.
+     *
+     * @param name file name of the image
+     * @return the decoded image
+     */
+    private static BufferedImage decode(String name) {
+        java.net.URL url = AssetManager.class.getResource(RESOURCE_PATH + name);
+        if (url == null) {
+            throw new IllegalStateException("Image not found: " + RESOURCE_PATH + name);
+        }
+        try {
+            BufferedImage img = ImageIO.read(url);
+            if (img == null) {
+                throw new IllegalStateException("Unsupported image format: " + name);
+            }
+            return img;
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Failed to read image: " + RESOURCE_PATH + name, e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package snackademy;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Keeps a copy of the background image scaled to the current display size.
+ * <p>
+ * The scaled copy is created in the display's native pixel format, so painting
+ * it is a plain 1:1 copy. It is only rebuilt when the requested size or the
+ * graphics configuration changes, for example when the window is resized.
+ */
+public class BackgroundCache {
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** The original, unscaled background image. */
+    private final Image source;
+
+    /** The scaled copy, or null if it has not been built yet. */
+    private BufferedImage scaled;
+
+    /** Graphics configuration the scaled copy was created for. */
+    private GraphicsConfiguration scaledConfig;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs a BackgroundCache for the given image.
+     *
+     * @param source the original background image
+     */
+    public BackgroundCache(Image source) {
+        this.source = source;
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the background scaled to the given size, rebuilding it if needed.
+     *
+     * @param config the graphics configuration of the target, or null for the default
+     * @param width width in pixels
+     * @param height height in pixels
+     * @return the scaled, display-compatible background image
+     */
+    public BufferedImage getImage(GraphicsConfiguration config, int width, int height) {
+        if (config == null) {
+            config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        }
+
+        if (scaled == null || scaled.getWidth() != width || scaled.getHeight() != height
+            || scaledConfig != config) {
+            rebuild(config, width, height);
+        }
+        return scaled;
+    }
+
+    /** Scales the source image into a new display-compatible image. */
+    private void rebuild(GraphicsConfiguration config, int width, int height) {
+        if (scaled != null) {
+            scaled.flush();
+        }
+
+        scaled = config.createCompatibleImage(
+            Math.max(width, 1), Math.max(height, 1), Transparency.OPAQUE
+        );
+        scaledConfig = config;
+
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(
+            RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR
+        );
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+    }
+}
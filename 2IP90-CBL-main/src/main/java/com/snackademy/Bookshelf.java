@@ -1,16 +1,15 @@
 package snackademy;
 
 import java.awt.Image;
-import java.awt.Polygon;
+import java.awt.Rectangle;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 
 /**
- * Represents a bookshelf in the game.
+ * Displays a bookshelf in the game.
  * <p>
- * This class handles:
- * - Loading the bookshelf image for display in the UI.
- * - Creating a polygon hitbox for collision detection.
+ * The bookshelf's position and hitbox live in its headless {@link ShelfModel};
+ * this class only loads the bookshelf image and shows it at the model's bounds.
  */
 public class Bookshelf {
 
@@ -19,35 +18,20 @@ public class Bookshelf {
     private ImageIcon bookshelf; // The bookshelf image
     private final JLabel label;  // JLabel to display the bookshelf in the UI
 
-    // Hitbox coordinates
-    int[] xPoints = new int[4]; // X coordinates of the polygon
-    int[] yPoints = new int[4]; // Y coordinates of the polygon
-
-    // Offsets relative to the top-left corner of the bookshelf image
-    int[] xOffsets = {52, 165, 135, 17};
-    int[] yOffsets = {115, 175, 190, 130};
-
-    Polygon bookshelfBounds; // Polygon representing the hitbox
-
     /** Constructor to create a bookshelf at position (x, y). */
     public Bookshelf(int x, int y) {
-        this.bookshelf = loadIcon("/snackademy/resources/Bookshelves.png");
+        this.bookshelf = loadIcon("Bookshelves.png");
         this.label = new JLabel(bookshelf);
-        this.label.setBounds(x, y, DEFAULT_SIZE, DEFAULT_SIZE); // Set position and size
-        this.bookshelfBounds = getPolygonBounds(x, y);          // Create hitbox polygon
+        label.setBounds(x, y, DEFAULT_SIZE, DEFAULT_SIZE);
     }
 
     // -------------------------------------------------------------------------
     // Image Loading
     // -------------------------------------------------------------------------
 
-    /** Loads an ImageIcon from a resource path. */
-    private ImageIcon loadIcon(String path) {
-        java.net.URL url = getClass().getResource(path);
-        if (url == null) {
-            throw new IllegalStateException("Desk image not found: " + path);
-        }
-        return new ImageIcon(url);
+    /** Wraps the shared decoded image from the AssetManager in an ImageIcon. */
+    private ImageIcon loadIcon(String name) {
+        return new ImageIcon(AssetManager.getImage(name));
     }
 
     /** Returns the JLabel for UI display. */
@@ -61,22 +45,14 @@ public class Bookshelf {
         return new ImageIcon(img);
     }
 
-    // -------------------------------------------------------------------------
-    // Hitbox Creation
-    // -------------------------------------------------------------------------
-
     /**
-     * Creates the polygon hitbox for the bookshelf based on offsets.
-     * 
-     * @param imgX X position of the bookshelf
-     * @param imgY Y position of the bookshelf
-     * @return Polygon representing the bookshelf hitbox
+     * Shows the bookshelf at the bounds of its model.
+     *
+     * @param model the bookshelf in the simulation
      */
-    public Polygon getPolygonBounds(int imgX, int imgY) {
-        for (int i = 0; i < xOffsets.length; i++) {
-            xPoints[i] = imgX + xOffsets[i];
-            yPoints[i] = imgY + yOffsets[i];
-        }
-        return new Polygon(xPoints, yPoints, xOffsets.length);
+    public void showAt(ShelfModel model) {
+        Rectangle bounds = model.getBounds();
+        label.setBounds(bounds);
+        label.setIcon(getScaledIcon(bounds.width, bounds.height));
     }
 }
@@ -0,0 +1,293 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform-grid spatial index over the bookshelf hitboxes.
+ * <p>
+ * The area covered by all shelves is divided into square cells roughly the
+ * size of one shelf hitbox. Every shelf is registered in each cell its hitbox
+ * bounds overlap. A query for a rectangle then only visits the cells that
+ * rectangle overlaps, so the cost of a collision check no longer grows with
+ * the total number of shelves. A query for a line segment walks only the
+ * cells the segment passes through, which is how {@link LineOfSight} casts
+ * its rays.
+ * <p>
+ * The grid is rebuilt by {@link #rebuild(List)} whenever the level is laid
+ * out; shelves do not move in between.
+ */
+public class BookshelfGrid {
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** World coordinates of the top-left corner of cell (0, 0). */
+    private int originX;
+    private int originY;
+
+    /** Width and height of a cell in pixels. */
+    private int cellSize = 1;
+
+    /** Number of cell columns and rows. */
+    private int columns;
+    private int rows;
+
+    /** Start offset of each cell in cellItems; cell c spans [cellStart[c], cellStart[c + 1]). */
+    private int[] cellStart = new int[1];
+
+    /** Shelf indices, grouped per cell. */
+    private int[] cellItems = new int[0];
+
+    /** Shelf indices found by the last query. */
+    private int[] results = new int[0];
+
+    /** Query number in which each shelf was last reported, to skip duplicates. */
+    private int[] lastSeen = new int[0];
+
+    /** Number of the current query. */
+    private int queryNumber;
+
+    /** Part of the segment of a line query that lies inside the grid, as segment parameters. */
+    private double clipStart;
+    private double clipEnd;
+
+    // -------------------------------------------------------------------------
+    // Building
+    // -------------------------------------------------------------------------
+
+    /**
+     * Rebuilds the grid from the current positions of the given shelves.
+     * Shelf indices in query results refer to positions in this list.
+     *
+     * @param shelves the bookshelves to index
+     */
+    public void rebuild(List<ShelfModel> shelves) {
+        int count = shelves.size();
+        results = new int[count];
+        lastSeen = new int[count];
+        queryNumber = 0;
+
+        if (count == 0) {
+            columns = 0;
+            rows = 0;
+            cellStart = new int[1];
+            cellItems = new int[0];
+            return;
+        }
+
+        // Gather hitbox bounds and the extent of the whole level
+        Rectangle[] bounds = new Rectangle[count];
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int largest = 1;
+        for (int i = 0; i < count; i++) {
+            ShelfModel shelf = shelves.get(i);
+            bounds[i] = shelf.getHitbox().getBounds();
+            minX = Math.min(minX, bounds[i].x);
+            minY = Math.min(minY, bounds[i].y);
+            maxX = Math.max(maxX, bounds[i].x + bounds[i].width);
+            maxY = Math.max(maxY, bounds[i].y + bounds[i].height);
+            largest = Math.max(largest, Math.max(bounds[i].width, bounds[i].height));
+        }
+
+        originX = minX;
+        originY = minY;
+        cellSize = largest;
+        columns = (maxX - minX) / cellSize + 1;
+        rows = (maxY - minY) / cellSize + 1;
+
+        // First pass: count the shelves per cell
+        int cells = columns * rows;
+        cellStart = new int[cells + 1];
+        for (Rectangle b : bounds) {
+            for (int cy = cellRow(b.y); cy <= cellRow(b.y + b.height); cy++) {
+                for (int cx = cellColumn(b.x); cx <= cellColumn(b.x + b.width); cx++) {
+                    cellStart[cy * columns + cx + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        // Second pass: fill in the shelf indices
+        cellItems = new int[cellStart[cells]];
+        int[] fill = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < count; i++) {
+            Rectangle b = bounds[i];
+            for (int cy = cellRow(b.y); cy <= cellRow(b.y + b.height); cy++) {
+                for (int cx = cellColumn(b.x); cx <= cellColumn(b.x + b.width); cx++) {
+                    cellItems[fill[cy * columns + cx]++] = i;
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries
+    // -------------------------------------------------------------------------
+
+    /**
+     * Finds all shelves whose hitbox bounds share a cell with the given area.
+     * The shelf indices are read with {@link #getResult(int)} afterwards.
+     *
+     * @param area the area to search, in world coordinates
+     * @return the number of candidate shelves found
+     */
+    public int query(Rectangle area) {
+        if (columns == 0
+            || area.x > originX + columns * cellSize || area.x + area.width < originX
+            || area.y > originY + rows * cellSize || area.y + area.height < originY) {
+            return 0;
+        }
+
+        startQuery();
+        int found = 0;
+        int lastRow = cellRow(area.y + area.height);
+        int lastColumn = cellColumn(area.x + area.width);
+        for (int cy = cellRow(area.y); cy <= lastRow; cy++) {
+            for (int cx = cellColumn(area.x); cx <= lastColumn; cx++) {
+                found = collect(cy * columns + cx, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds all shelves whose hitbox bounds share a cell with a line segment.
+     * Only the cells the segment passes through are visited, so a long
+     * diagonal ray does not search its whole bounding box. The shelf indices
+     * are read with {@link #getResult(int)} afterwards.
+     *
+     * @param x0 x coordinate of the start, in world coordinates
+     * @param y0 y coordinate of the start
+     * @param x1 x coordinate of the end
+     * @param y1 y coordinate of the end
+     * @return the number of candidate shelves found
+     */
+    public int queryLine(double x0, double y0, double x1, double y1) {
+        if (columns == 0) {
+            return 0;
+        }
+
+        // Clip the segment to the area of the grid (Liang-Barsky)
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        clipStart = 0;
+        clipEnd = 1;
+        if (!clip(-dx, x0 - originX) || !clip(dx, originX + (double) columns * cellSize - x0)
+            || !clip(-dy, y0 - originY) || !clip(dy, originY + (double) rows * cellSize - y0)) {
+            return 0;
+        }
+
+        startQuery();
+
+        // Walk the cells along the segment, one cell border at a time
+        double gx = (x0 + clipStart * dx - originX) / cellSize;
+        double gy = (y0 + clipStart * dy - originY) / cellSize;
+        int cx = clamp((int) Math.floor(gx), columns);
+        int cy = clamp((int) Math.floor(gy), rows);
+        int endX = clamp((int) Math.floor((x0 + clipEnd * dx - originX) / cellSize), columns);
+        int endY = clamp((int) Math.floor((y0 + clipEnd * dy - originY) / cellSize), rows);
+
+        int stepX = endX > cx ? 1 : -1;
+        int stepY = endY > cy ? 1 : -1;
+        double cellsX = Math.abs(dx) / cellSize;
+        double cellsY = Math.abs(dy) / cellSize;
+        // Segment parameter at which the next column and row border is crossed
+        double nextX = cellsX == 0 ? Double.POSITIVE_INFINITY
+            : clipStart + (stepX > 0 ? cx + 1 - gx : gx - cx) / cellsX;
+        double nextY = cellsY == 0 ? Double.POSITIVE_INFINITY
+            : clipStart + (stepY > 0 ? cy + 1 - gy : gy - cy) / cellsY;
+
+        int found = collect(cy * columns + cx, 0);
+        while (cx != endX || cy != endY) {
+            if (cy == endY || (cx != endX && nextX < nextY)) {
+                cx += stepX;
+                nextX += 1 / cellsX;
+            } else {
+                cy += stepY;
+                nextY += 1 / cellsY;
+            }
+            found = collect(cy * columns + cx, found);
+        }
+        return found;
+    }
+
+    /** Starts a new query, so shelves found by earlier queries are reported again. */
+    private void startQuery() {
+        queryNumber++;
+        if (queryNumber == 0) {
+            // Counter wrapped around: forget all previous queries
+            Arrays.fill(lastSeen, 0);
+            queryNumber = 1;
+        }
+    }
+
+    /**
+     * Adds the shelves of one cell that the current query has not found yet.
+     *
+     * @param cell index of the cell
+     * @param found number of shelves found so far
+     * @return the new number of shelves found
+     */
+    private int collect(int cell, int found) {
+        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+            int shelf = cellItems[k];
+            if (lastSeen[shelf] != queryNumber) {
+                lastSeen[shelf] = queryNumber;
+                results[found++] = shelf;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Narrows the segment range [clipStart, clipEnd] to the side of one grid
+     * border where {@code p * t <= q}.
+     *
+     * @return false if nothing of the segment is left
+     */
+    private boolean clip(double p, double q) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double t = q / p;
+        if (p < 0) {
+            clipStart = Math.max(clipStart, t);
+        } else {
+            clipEnd = Math.min(clipEnd, t);
+        }
+        return clipStart <= clipEnd;
+    }
+
+    /**
+     * Returns a shelf index found by the last query.
+     *
+     * @param i position in the result, between 0 and the query count
+     * @return index of the shelf in the list passed to {@link #rebuild(List)}
+     */
+    public int getResult(int i) {
+        return results[i];
+    }
+
+    /** Returns the column of the cell containing world x, clamped to the grid. */
+    private int cellColumn(int x) {
+        return Math.max(0, Math.min(columns - 1, (x - originX) / cellSize));
+    }
+
+    /** Returns the row of the cell containing world y, clamped to the grid. */
+    private int cellRow(int y) {
+        return Math.max(0, Math.min(rows - 1, (y - originY) / cellSize));
+    }
+
+    /** Clamps a cell coordinate to [0, count - 1]. */
+    private static int clamp(int cell, int count) {
+        return Math.max(0, Math.min(count - 1, cell));
+    }
+}
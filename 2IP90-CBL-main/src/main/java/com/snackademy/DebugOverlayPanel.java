@@ -1,17 +1,24 @@
 package snackademy;
 
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Polygon;
-import java.util.List;
 import javax.swing.JPanel;
 
 /**
  * A transparent overlay panel for visualizing hitboxes in the game.
  * <p>
  * Draws the player's rectangle hitbox in red and all bookshelf polygon hitboxes in blue.
+ * Students are drawn in green and extra librarians in orange, or red while attentive.
+ * The edges of the librarians' view cones are drawn in yellow.
  * This panel is intended for debugging collision detection and layout.
+ * <p>
+ * When the performance HUD is switched on (F3), the overlay also shows the
+ * metrics of a {@link PerformanceMonitor}: FPS, tick, paint and EDT queue
+ * times as p50/p99/max over the last {@link PerformanceMonitor#WINDOW}
+ * samples, a sparkline of the frame times, the allocation rate, GC pauses
+ * and the session seed.
  */
 public class DebugOverlayPanel extends JPanel {
 
@@ -19,11 +26,14 @@ public class DebugOverlayPanel extends JPanel {
     // Instance Variables
     // -------------------------------------------------------------------------
 
-    /** The player whose hitbox is visualized. */
-    private Player player;
+    /** The simulation whose player and bookshelf hitboxes are visualized. */
+    private final GameWorld world;
+
+    /** Source of the metrics shown in the performance HUD. */
+    private final PerformanceMonitor monitor;
 
-    /** List of bookshelves whose hitboxes are visualized. */
-    private final List<Bookshelf> bookshelves;
+    /** Whether the performance HUD is shown. */
+    private boolean hudVisible;
 
     // -------------------------------------------------------------------------
     // Constructor
@@ -32,12 +42,12 @@ public class DebugOverlayPanel extends JPanel {
     /**
      * Constructs a new DebugOverlayPanel.
      * 
-     * @param player the player object
-     * @param bookshelves the list of bookshelves
+     * @param world the simulation to visualize
+     * @param monitor the metrics shown in the performance HUD
      */
-    public DebugOverlayPanel(Player player, List<Bookshelf> bookshelves) {
-        this.player = player;
-        this.bookshelves = bookshelves;
+    public DebugOverlayPanel(GameWorld world, PerformanceMonitor monitor) {
+        this.world = world;
+        this.monitor = monitor;
 
         // Set panel transparent so it overlays without hiding the game
         setOpaque(false);
@@ -59,20 +69,200 @@ public class DebugOverlayPanel extends JPanel {
         super.paintComponent(g);
 
         // Cast Graphics to Graphics2D for enhanced drawing control
-        Graphics2D g2d = (Graphics2D) g;
+        paintOverlay((Graphics2D) g);
+    }
 
+    /**
+     * Draws the debug hitboxes onto the given graphics context.
+     * <p>
+     * Used by {@link #paintComponent(Graphics)} and by the active renderer,
+     * which draws the overlay into its own back buffer.
+     *
+     * @param g2d the graphics context to draw on
+     */
+    public void paintOverlay(Graphics2D g2d) {
         // Draw player's rectangle hitbox in red
         g2d.setColor(Color.RED);
-        g2d.draw(player.getRectangleBounds());
+        g2d.draw(world.getPlayerFeet());
 
         // Draw each bookshelf's polygon hitbox in blue
         g2d.setColor(Color.BLUE);
-        for (Bookshelf shelf : bookshelves) {
-            Polygon bounds = shelf.getPolygonBounds(
-                shelf.getLabel().getX(),
-                shelf.getLabel().getY()
-            );
-            g2d.drawPolygon(bounds);
+        for (ShelfModel shelf : world.getShelves()) {
+            g2d.drawPolygon(shelf.getHitbox());
+        }
+
+        paintNpcs(g2d);
+        paintViewCones(g2d);
+
+        if (hudVisible) {
+            paintHud(g2d);
+        }
+    }
+
+    /** Draws the students and extra librarians as filled squares. */
+    private void paintNpcs(Graphics2D g2d) {
+        EntityRegistry npcs = world.getNpcs();
+        for (int i = 0; i < npcs.size(); i++) {
+            if (npcs.getKind(i) == EntityRegistry.STUDENT) {
+                g2d.setColor(Color.GREEN);
+            } else {
+                g2d.setColor(npcs.isAttentive(i) ? Color.RED : Color.ORANGE);
+            }
+            g2d.fillRect((int) npcs.getX(i), (int) npcs.getY(i),
+                npcs.getWidth(i), npcs.getHeight(i));
+        }
+    }
+
+    /**
+     * Draws the edges of the main librarian's view cone across the level,
+     * and a short cone for every attentive extra librarian.
+     */
+    private void paintViewCones(Graphics2D g2d) {
+        g2d.setColor(Color.YELLOW);
+        int reach = world.getWidth() + world.getHeight();
+        paintCone(g2d, world.getLibrarianEyeX(), world.getLibrarianEyeY(),
+            GameWorld.LIBRARIAN_FACING_X, GameWorld.LIBRARIAN_FACING_Y, reach);
+
+        EntityRegistry npcs = world.getNpcs();
+        for (int i = 0; i < npcs.size(); i++) {
+            if (npcs.isAttentive(i)) {
+                paintCone(g2d, npcs.getX(i) + npcs.getWidth(i) / 2.0,
+                    npcs.getY(i) + npcs.getHeight(i),
+                    npcs.getFacingX(i), npcs.getFacingY(i), npcs.getWidth(i) * 2);
+            }
+        }
+    }
+
+    /** Draws the two edges of one view cone. */
+    private static void paintCone(Graphics2D g2d, double eyeX, double eyeY,
+                                  double facingX, double facingY, int length) {
+        double half = Math.toRadians(LineOfSight.VIEW_ANGLE_DEGREES / 2);
+        for (int side = -1; side <= 1; side += 2) {
+            double cos = Math.cos(side * half);
+            double sin = Math.sin(side * half);
+            double dx = facingX * cos - facingY * sin;
+            double dy = facingX * sin + facingY * cos;
+            g2d.drawLine((int) eyeX, (int) eyeY,
+                (int) (eyeX + dx * length), (int) (eyeY + dy * length));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Performance HUD
+    // -------------------------------------------------------------------------
+
+    /** Position and size of the HUD box. */
+    private static final int HUD_X = 50;
+    private static final int HUD_Y = 70;
+    private static final int HUD_WIDTH = 420;
+    private static final int LINE_HEIGHT = 16;
+    private static final int LINES = 8;
+    private static final int SPARKLINE_HEIGHT = 40;
+    private static final int HUD_HEIGHT = LINES * LINE_HEIGHT + SPARKLINE_HEIGHT + 16;
+
+    /** Frame time drawn at the top of the sparkline, in nanoseconds (two 60 Hz frames). */
+    private static final long SPARKLINE_SCALE = 33_333_333L;
+
+    private static final Font HUD_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color HUD_BACKGROUND = new Color(0, 0, 0, 170);
+
+    /**
+     * Shows or hides the performance HUD and starts or stops the monitor's
+     * sampling with it.
+     *
+     * @param visible whether the HUD should be shown
+     */
+    public void setHudVisible(boolean visible) {
+        hudVisible = visible;
+        if (visible) {
+            monitor.start(this::repaintHud);
+        } else {
+            monitor.stop();
+        }
+        repaintHud();
+    }
+
+    /** Repaints only the area of the HUD box. */
+    private void repaintHud() {
+        repaint(HUD_X, HUD_Y, HUD_WIDTH, HUD_HEIGHT);
+    }
+
+    /** Returns whether the performance HUD is shown. */
+    public boolean isHudVisible() {
+        return hudVisible;
+    }
+
+    /** Draws the metrics box with the frame time sparkline. */
+    private void paintHud(Graphics2D g2d) {
+        PerformanceMonitor.Window frames = monitor.getFrames();
+        frames.summarize();
+        monitor.getTicks().summarize();
+        monitor.getPaints().summarize();
+        monitor.getEdtLatency().summarize();
+
+        g2d.setColor(HUD_BACKGROUND);
+        g2d.fillRect(HUD_X, HUD_Y, HUD_WIDTH, HUD_HEIGHT);
+
+        g2d.setFont(HUD_FONT);
+        g2d.setColor(Color.WHITE);
+        int x = HUD_X + 8;
+        int y = HUD_Y + LINE_HEIGHT;
+        double fps = monitor.getFramesPerSecond();
+        g2d.drawString(String.format("FPS %5.1f        p50      p99      max", fps), x, y);
+        y += LINE_HEIGHT;
+        g2d.drawString(timings("frame", frames), x, y);
+        y += LINE_HEIGHT;
+        g2d.drawString(timings("tick", monitor.getTicks()), x, y);
+        y += LINE_HEIGHT;
+        g2d.drawString(timings("paint", monitor.getPaints()), x, y);
+        y += LINE_HEIGHT;
+        g2d.drawString(timings("EDT queue", monitor.getEdtLatency()), x, y);
+        y += LINE_HEIGHT;
+
+        double rate = monitor.getAllocationRate();
+        g2d.drawString(rate < 0
+            ? "alloc      n/a"
+            : String.format("alloc %8.1f MB/s", rate / (1024 * 1024)), x, y);
+        y += LINE_HEIGHT;
+        g2d.drawString(String.format("GC %d pauses, %d ms total, last %d ms, max %d ms",
+            monitor.getGcCount(), monitor.getGcTotalMillis(),
+            monitor.getGcLastMillis(), monitor.getGcMaxMillis()), x, y);
+        y += LINE_HEIGHT;
+        g2d.drawString("seed  " + SessionSeed.format(world.getSeed()), x, y);
+
+        paintSparkline(g2d, frames, x, y + 8, HUD_WIDTH - 16);
+    }
+
+    /** Formats one row of the timing table in milliseconds. */
+    private static String timings(String name, PerformanceMonitor.Window window) {
+        return String.format("%-10s %8.2f %8.2f %8.2f ms", name,
+            window.getP50() / 1e6, window.getP99() / 1e6, window.getMax() / 1e6);
+    }
+
+    /**
+     * Draws the frame times of the window as bars, oldest on the left. Frames
+     * slower than two 60 Hz frames are clipped at the top and drawn in red.
+     */
+    private static void paintSparkline(Graphics2D g2d, PerformanceMonitor.Window window,
+                                       int x, int y, int width) {
+        g2d.setColor(Color.DARK_GRAY);
+        g2d.drawRect(x, y, width, SPARKLINE_HEIGHT);
+
+        // Dotted line at one 60 Hz frame
+        int budgetY = y + SPARKLINE_HEIGHT / 2;
+        for (int i = x; i < x + width; i += 4) {
+            g2d.drawLine(i, budgetY, i + 1, budgetY);
+        }
+
+        int count = window.size();
+        int bottom = y + SPARKLINE_HEIGHT;
+        for (int i = 0; i < count; i++) {
+            long value = window.get(i);
+            int barX = x + 1 + (int) ((long) i * (width - 2) / PerformanceMonitor.WINDOW);
+            int barHeight = (int) Math.min(SPARKLINE_HEIGHT,
+                value * SPARKLINE_HEIGHT / SPARKLINE_SCALE);
+            g2d.setColor(value > SPARKLINE_SCALE ? Color.RED : Color.GREEN);
+            g2d.drawLine(barX, bottom, barX, bottom - barHeight);
         }
     }
 }
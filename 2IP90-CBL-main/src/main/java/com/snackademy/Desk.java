@@ -39,11 +39,11 @@ public class Desk {
      * @param y Y coordinate of the desk
      */
     public Desk(int x, int y) {
-        icon = loadIcon("/snackademy/resources/desk.png");
+        icon = loadIcon("desk.png");
         label = new JLabel(icon);
 
         // Position and size the label in the UI
-        label.setBounds(x, y, DEFAULT_SIZE, DEFAULT_SIZE);
+        setBounds(x, y, DEFAULT_SIZE, DEFAULT_SIZE);
     }
 
     // -------------------------------------------------------------------------
@@ -51,18 +51,14 @@ public class Desk {
     // -------------------------------------------------------------------------
 
     /**
-     * Loads an ImageIcon from a resource path.
+     * Wraps the shared decoded image from the AssetManager in an ImageIcon.
      *
-     * @param path the resource path of the image
-     * @return ImageIcon loaded from the resource
+     * @param name the file name of the image in resources
+     * @return ImageIcon for the shared image
      * @throws IllegalStateException if the resource cannot be found
      */
-    private ImageIcon loadIcon(String path) {
-        java.net.URL url = getClass().getResource(path);
-        if (url == null) {
-            throw new IllegalStateException("Desk image not found: " + path);
-        }
-        return new ImageIcon(url);
+    private ImageIcon loadIcon(String name) {
+        return new ImageIcon(AssetManager.getImage(name));
     }
 
     // -------------------------------------------------------------------------
@@ -78,6 +74,18 @@ public class Desk {
         return label;
     }
 
+    /**
+     * Moves and resizes the desk.
+     *
+     * @param x X coordinate of the desk
+     * @param y Y coordinate of the desk
+     * @param width width in pixels
+     * @param height height in pixels
+     */
+    public void setBounds(int x, int y, int width, int height) {
+        label.setBounds(x, y, width, height);
+    }
+
     /**
      * Returns a scaled version of the desk image for dynamic resizing.
      *
@@ -0,0 +1,124 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import javax.swing.JComponent;
+
+/**
+ * Collects the parts of the game panel that changed during a tick, so only
+ * those are repainted instead of the whole scene.
+ * <p>
+ * Overlapping rectangles are merged as they are added. The number of
+ * separate rectangles is bounded; when it is exceeded, the new area is
+ * merged into the rectangle it grows the least. Adding and flushing never
+ * allocate.
+ */
+public class DirtyRegion {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Maximum number of separate rectangles kept before merging. */
+    private static final int MAX_RECTS = 8;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** The dirty rectangles; only the first {@link #count} are in use. */
+    private final Rectangle[] rects = new Rectangle[MAX_RECTS];
+
+    /** Number of dirty rectangles. */
+    private int count;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /** Constructs an empty dirty region. */
+    public DirtyRegion() {
+        for (int i = 0; i < MAX_RECTS; i++) {
+            rects[i] = new Rectangle();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Tracking
+    // -------------------------------------------------------------------------
+
+    /**
+     * Marks an area as changed.
+     *
+     * @param x left edge
+     * @param y top edge
+     * @param width width of the area
+     * @param height height of the area
+     */
+    public void add(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        // Merge into a rectangle it touches
+        for (int i = 0; i < count; i++) {
+            Rectangle r = rects[i];
+            if (x <= r.x + r.width && r.x <= x + width
+                && y <= r.y + r.height && r.y <= y + height) {
+                union(r, x, y, width, height);
+                return;
+            }
+        }
+
+        if (count < MAX_RECTS) {
+            rects[count++].setBounds(x, y, width, height);
+            return;
+        }
+
+        // Full: grow the rectangle that needs the smallest increase in area
+        int best = 0;
+        long bestGrowth = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            Rectangle r = rects[i];
+            long w = Math.max(r.x + r.width, x + width) - Math.min(r.x, x);
+            long h = Math.max(r.y + r.height, y + height) - Math.min(r.y, y);
+            long growth = w * h - (long) r.width * r.height;
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                best = i;
+            }
+        }
+        union(rects[best], x, y, width, height);
+    }
+
+    /** Grows a rectangle in place to also cover the given area. */
+    private static void union(Rectangle r, int x, int y, int width, int height) {
+        int x2 = Math.max(r.x + r.width, x + width);
+        int y2 = Math.max(r.y + r.height, y + height);
+        r.x = Math.min(r.x, x);
+        r.y = Math.min(r.y, y);
+        r.width = x2 - r.x;
+        r.height = y2 - r.y;
+    }
+
+    /**
+     * Requests a repaint of every dirty rectangle of the component and
+     * empties the region.
+     *
+     * @param component the component the rectangles are relative to
+     * @return true if a repaint was requested, false if nothing was dirty
+     */
+    public boolean flush(JComponent component) {
+        boolean dirty = count > 0;
+        for (int i = 0; i < count; i++) {
+            Rectangle r = rects[i];
+            component.repaint(r.x, r.y, r.width, r.height);
+        }
+        count = 0;
+        return dirty;
+    }
+
+    /** Empties the region without repainting anything. */
+    public void clear() {
+        count = 0;
+    }
+}
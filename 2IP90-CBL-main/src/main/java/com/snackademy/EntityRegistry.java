@@ -0,0 +1,226 @@
+package snackademy;
+
+import java.util.Arrays;
+
+/**
+ * Storage for the non-player characters of a level: wandering students and
+ * extra librarians.
+ * <p>
+ * Entities are stored as a struct of arrays: one primitive array per field,
+ * indexed by entity. The {@link EntitySystems} walk these arrays in tight
+ * loops, which keeps the data for one pass next to each other in memory and
+ * avoids an object per entity. Entities are removed by moving the last one
+ * into the gap, so indices are only stable until the next removal.
+ */
+public class EntityRegistry {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Kind of a student that wanders through the library. */
+    public static final byte STUDENT = 0;
+
+    /** Kind of a librarian that cycles through the attention states. */
+    public static final byte LIBRARIAN = 1;
+
+    /** Capacity of a new registry. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    // -------------------------------------------------------------------------
+    // Entity Data
+    // -------------------------------------------------------------------------
+
+    /** Number of entities; only the first {@code count} slots are in use. */
+    private int count;
+
+    /** Position of the hitbox's top-left corner, in pixels. */
+    float[] x = new float[INITIAL_CAPACITY];
+    float[] y = new float[INITIAL_CAPACITY];
+
+    /** Velocity in pixels per second. */
+    float[] vx = new float[INITIAL_CAPACITY];
+    float[] vy = new float[INITIAL_CAPACITY];
+
+    /** Hitbox size in pixels. */
+    int[] width = new int[INITIAL_CAPACITY];
+    int[] height = new int[INITIAL_CAPACITY];
+
+    /** {@link #STUDENT} or {@link #LIBRARIAN}. */
+    byte[] kind = new byte[INITIAL_CAPACITY];
+
+    /** Librarians: ordinal of their {@link LibrarianModel.State}. Students: unused. */
+    byte[] state = new byte[INITIAL_CAPACITY];
+
+    /** Simulation time in milliseconds of the entity's next decision. */
+    long[] deadline = new long[INITIAL_CAPACITY];
+
+    /** Librarians: unit vector of the direction they look in. */
+    float[] facingX = new float[INITIAL_CAPACITY];
+    float[] facingY = new float[INITIAL_CAPACITY];
+
+    /** Librarians: whether they saw the player when last checked. */
+    boolean[] seesPlayer = new boolean[INITIAL_CAPACITY];
+
+    /** Sight epoch in which {@link #seesPlayer} was computed, 0 if never. */
+    int[] sightStamp = new int[INITIAL_CAPACITY];
+
+    /** Number of librarians that are attentive, kept up to date by the systems. */
+    int attentiveLibrarians;
+
+    /** Current sight epoch; cached sight from an older epoch is out of date. */
+    int sightEpoch = 1;
+
+    // -------------------------------------------------------------------------
+    // Adding and Removing
+    // -------------------------------------------------------------------------
+
+    /**
+     * Adds a standing entity.
+     *
+     * @param entityKind {@link #STUDENT} or {@link #LIBRARIAN}
+     * @param px x coordinate of the hitbox
+     * @param py y coordinate of the hitbox
+     * @param w hitbox width
+     * @param h hitbox height
+     * @return the index of the new entity
+     */
+    public int add(byte entityKind, float px, float py, int w, int h) {
+        if (count == x.length) {
+            grow();
+        }
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = 0;
+        vy[i] = 0;
+        width[i] = w;
+        height[i] = h;
+        kind[i] = entityKind;
+        state[i] = (byte) LibrarianModel.State.INATTENTIVE.ordinal();
+        deadline[i] = 0;
+        facingX[i] = 0;
+        facingY[i] = -1;
+        sightStamp[i] = 0;
+        return i;
+    }
+
+    /**
+     * Removes an entity. The last entity takes over its index.
+     *
+     * @param i index of the entity to remove
+     */
+    public void remove(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("No entity " + i);
+        }
+        if (isAttentive(i)) {
+            attentiveLibrarians--;
+        }
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        width[i] = width[last];
+        height[i] = height[last];
+        kind[i] = kind[last];
+        state[i] = state[last];
+        deadline[i] = deadline[last];
+        facingX[i] = facingX[last];
+        facingY[i] = facingY[last];
+        seesPlayer[i] = seesPlayer[last];
+        sightStamp[i] = sightStamp[last];
+    }
+
+    /** Removes all entities. */
+    public void clear() {
+        count = 0;
+        attentiveLibrarians = 0;
+    }
+
+    /** Doubles the capacity of every array. */
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        kind = Arrays.copyOf(kind, capacity);
+        state = Arrays.copyOf(state, capacity);
+        deadline = Arrays.copyOf(deadline, capacity);
+        facingX = Arrays.copyOf(facingX, capacity);
+        facingY = Arrays.copyOf(facingY, capacity);
+        seesPlayer = Arrays.copyOf(seesPlayer, capacity);
+        sightStamp = Arrays.copyOf(sightStamp, capacity);
+    }
+
+    /**
+     * Marks the cached sight of every librarian as out of date, for example
+     * because the player moved. Costs the same for any number of entities.
+     */
+    public void invalidateSight() {
+        sightEpoch++;
+        if (sightEpoch == 0) {
+            // Counter wrapped around: forget all cached sight
+            Arrays.fill(sightStamp, 0);
+            sightEpoch = 1;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /** Returns the number of entities. */
+    public int size() {
+        return count;
+    }
+
+    /** Returns the x coordinate of an entity's hitbox. */
+    public float getX(int i) {
+        return x[i];
+    }
+
+    /** Returns the y coordinate of an entity's hitbox. */
+    public float getY(int i) {
+        return y[i];
+    }
+
+    /** Returns the hitbox width of an entity. */
+    public int getWidth(int i) {
+        return width[i];
+    }
+
+    /** Returns the hitbox height of an entity. */
+    public int getHeight(int i) {
+        return height[i];
+    }
+
+    /** Returns the kind of an entity: {@link #STUDENT} or {@link #LIBRARIAN}. */
+    public byte getKind(int i) {
+        return kind[i];
+    }
+
+    /** Returns whether an entity is a librarian that is attentive. */
+    public boolean isAttentive(int i) {
+        return kind[i] == LIBRARIAN && state[i] == LibrarianModel.State.ATTENTIVE.ordinal();
+    }
+
+    /** Returns the x component of the direction a librarian looks in. */
+    public float getFacingX(int i) {
+        return facingX[i];
+    }
+
+    /** Returns the y component of the direction a librarian looks in. */
+    public float getFacingY(int i) {
+        return facingY[i];
+    }
+
+    /** Returns whether any librarian in the registry is attentive. */
+    public boolean anyAttentive() {
+        return attentiveLibrarians > 0;
+    }
+}
@@ -0,0 +1,234 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import java.util.SplittableRandom;
+
+/**
+ * The systems that run the entities of an {@link EntityRegistry} once per tick.
+ * <p>
+ * Each system is one loop over the registry's arrays that only touches the
+ * fields it needs: {@link #decide} gives students a new walking direction
+ * and moves librarians through their attention cycle when their deadline
+ * has passed, {@link #move} integrates the velocities and bounces
+ * entities off the level edges and the bookshelves, and {@link #watch}
+ * checks whether an attentive librarian sees the player.
+ */
+public final class EntitySystems {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Walking speed of a student in pixels per second. */
+    public static final float STUDENT_SPEED = 90f;
+
+    /** Width and height of an entity hitbox in pixels. */
+    public static final int ENTITY_SIZE = 40;
+
+    /** Shortest time a student keeps walking in one direction, in milliseconds. */
+    private static final int WANDER_MIN_MS = 1000;
+
+    /** Range of the random extra walking time, in milliseconds. */
+    private static final int WANDER_RANGE_MS = 3000;
+
+    /** Number of attempts to find a free spot when spawning. */
+    private static final int SPAWN_ATTEMPTS = 20;
+
+    /** Attention states by ordinal. */
+    private static final LibrarianModel.State[] STATES = LibrarianModel.State.values();
+
+    private EntitySystems() {
+    }
+
+    // -------------------------------------------------------------------------
+    // Spawning
+    // -------------------------------------------------------------------------
+
+    /**
+     * Adds an entity at a random spot of the level that does not touch a bookshelf.
+     *
+     * @param entities the registry to add to
+     * @param kind {@link EntityRegistry#STUDENT} or {@link EntityRegistry#LIBRARIAN}
+     * @param world the laid-out level
+     * @param random the random source
+     * @param now simulation time in milliseconds
+     * @return the index of the new entity
+     */
+    public static int spawn(EntityRegistry entities, byte kind, GameWorld world,
+                            SplittableRandom random, long now) {
+        int rangeX = Math.max(1, world.getWidth() - ENTITY_SIZE);
+        int rangeY = Math.max(1, world.getHeight() - ENTITY_SIZE);
+        int px = 0;
+        int py = 0;
+        for (int attempt = 0; attempt < SPAWN_ATTEMPTS; attempt++) {
+            px = random.nextInt(rangeX);
+            py = random.nextInt(rangeY);
+            if (!world.collidesWithShelf(px, py, ENTITY_SIZE, ENTITY_SIZE)) {
+                break;
+            }
+        }
+
+        int i = entities.add(kind, px, py, ENTITY_SIZE, ENTITY_SIZE);
+        if (kind == EntityRegistry.LIBRARIAN) {
+            entities.deadline[i] = now
+                + LibrarianModel.drawDuration(LibrarianModel.State.INATTENTIVE, random);
+        } else {
+            entities.deadline[i] = now;
+        }
+        return i;
+    }
+
+    // -------------------------------------------------------------------------
+    // Systems
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs all systems for one tick.
+     *
+     * @param entities the entities to update
+     * @param world the level the entities walk in
+     * @param random the random source for decisions
+     * @param now simulation time in milliseconds
+     * @param seconds duration of the tick in seconds
+     */
+    public static void update(EntityRegistry entities, GameWorld world, SplittableRandom random,
+                              long now, float seconds) {
+        decide(entities, random, now);
+        move(entities, world, seconds);
+    }
+
+    /**
+     * Lets every entity whose deadline has passed make its next decision.
+     *
+     * @param entities the entities to update
+     * @param random the random source
+     * @param now simulation time in milliseconds
+     */
+    public static void decide(EntityRegistry entities, SplittableRandom random, long now) {
+        int count = entities.size();
+        long[] deadline = entities.deadline;
+        byte[] kind = entities.kind;
+        for (int i = 0; i < count; i++) {
+            if (now < deadline[i]) {
+                continue;
+            }
+            if (kind[i] == EntityRegistry.STUDENT) {
+                wander(entities, i, random, now);
+            } else {
+                turn(entities, i, random, now);
+            }
+        }
+    }
+
+    /** Gives a student a new random direction, or makes it stand still for a while. */
+    private static void wander(EntityRegistry entities, int i, SplittableRandom random, long now) {
+        if (random.nextInt(4) == 0) {
+            entities.vx[i] = 0;
+            entities.vy[i] = 0;
+        } else {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            entities.vx[i] = (float) (Math.cos(angle) * STUDENT_SPEED);
+            entities.vy[i] = (float) (Math.sin(angle) * STUDENT_SPEED);
+        }
+        entities.deadline[i] = now + WANDER_MIN_MS + random.nextInt(WANDER_RANGE_MS);
+    }
+
+    /**
+     * Moves a librarian to the next attention state. A librarian that
+     * becomes attentive looks in a new random direction.
+     */
+    private static void turn(EntityRegistry entities, int i, SplittableRandom random, long now) {
+        LibrarianModel.State next = STATES[(entities.state[i] + 1) % STATES.length];
+        if (next == LibrarianModel.State.ATTENTIVE) {
+            entities.attentiveLibrarians++;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            entities.facingX[i] = (float) Math.cos(angle);
+            entities.facingY[i] = (float) Math.sin(angle);
+            entities.sightStamp[i] = 0;
+        } else if (entities.state[i] == LibrarianModel.State.ATTENTIVE.ordinal()) {
+            entities.attentiveLibrarians--;
+        }
+        entities.state[i] = (byte) next.ordinal();
+        entities.deadline[i] = now + LibrarianModel.drawDuration(next, random);
+    }
+
+    /**
+     * Moves every walking entity by its velocity. Entities bounce off the
+     * level edges, and turn around instead of walking into a bookshelf.
+     *
+     * @param entities the entities to move
+     * @param world the level with its bookshelves
+     * @param seconds duration of the tick in seconds
+     */
+    public static void move(EntityRegistry entities, GameWorld world, float seconds) {
+        int count = entities.size();
+        float[] x = entities.x;
+        float[] y = entities.y;
+        float[] vx = entities.vx;
+        float[] vy = entities.vy;
+        int[] width = entities.width;
+        int[] height = entities.height;
+        int levelWidth = world.getWidth();
+        int levelHeight = world.getHeight();
+
+        for (int i = 0; i < count; i++) {
+            if (vx[i] == 0 && vy[i] == 0) {
+                continue;
+            }
+            float nx = x[i] + vx[i] * seconds;
+            float ny = y[i] + vy[i] * seconds;
+
+            if (nx < 0 || nx + width[i] > levelWidth) {
+                vx[i] = -vx[i];
+                nx = Math.max(0, Math.min(nx, levelWidth - width[i]));
+            }
+            if (ny < 0 || ny + height[i] > levelHeight) {
+                vy[i] = -vy[i];
+                ny = Math.max(0, Math.min(ny, levelHeight - height[i]));
+            }
+
+            if (world.collidesWithShelf((int) nx, (int) ny, width[i], height[i])) {
+                vx[i] = -vx[i];
+                vy[i] = -vy[i];
+                continue;
+            }
+            x[i] = nx;
+            y[i] = ny;
+            entities.sightStamp[i] = 0;
+        }
+    }
+
+    /**
+     * Checks whether any attentive librarian sees the target. Each
+     * librarian's answer is cached until it or the target moves, or it turns
+     * to a new direction, so repeated checks cost one array read per
+     * librarian. Returns at once when no librarian is attentive.
+     *
+     * @param entities the entities to check
+     * @param sight the line of sight through the level
+     * @param target the target's feet hitbox
+     * @return true if an attentive librarian sees the target
+     */
+    public static boolean watch(EntityRegistry entities, LineOfSight sight, Rectangle target) {
+        if (!entities.anyAttentive()) {
+            return false;
+        }
+        int count = entities.size();
+        int epoch = entities.sightEpoch;
+        for (int i = 0; i < count; i++) {
+            if (!entities.isAttentive(i)) {
+                continue;
+            }
+            if (entities.sightStamp[i] != epoch) {
+                entities.seesPlayer[i] = sight.canSee(
+                    entities.x[i] + entities.width[i] / 2.0, entities.y[i] + entities.height[i],
+                    entities.facingX[i], entities.facingY[i], target);
+                entities.sightStamp[i] = epoch;
+            }
+            if (entities.seesPlayer[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
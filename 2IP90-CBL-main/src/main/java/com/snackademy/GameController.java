@@ -1,16 +1,26 @@
 package snackademy;
 
-import java.awt.Polygon;
-import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Path;
 import javax.swing.SwingUtilities;
 
 /**
- * GameController connects UILayout, Player, and Librarian.
+ * GameController connects the headless {@link GameWorld} to its Swing view.
  * <p>
- * Handles player movement, interactions with snacks and desks, collisions 
- * with bookshelves, caught screens, and sound effects.
+ * Feeds keyboard input into the simulation, runs it from a single
+ * fixed-timestep {@link GameLoop}, and turns the simulation's events into
+ * UI updates, caught screens, and sound effects. The game rules themselves
+ * live in {@link GameWorld}.
+ * <p>
+ * While no movement key is held, the loop parks until the librarian's next
+ * transition or the next key press, so an idle game does not wake up at all.
+ * <p>
+ * A session can be recorded into a replay file with {@link #startRecording(Path)}.
+ * A controller constructed with a {@link Replay} takes no keyboard input and
+ * plays the recorded input, layouts and resets back at their recorded ticks.
  */
-public class GameController {
+public class GameController
+    implements GameWorld.Listener, GameLoop.IdlePolicy, Replay.Handler {
 
     // -------------------------------------------------------------------------
     // Instance Variables
@@ -19,54 +29,94 @@ public class GameController {
     /** The game's UI layout. */
     private final UILayout ui;
 
-    /** The player controlled by the user. */
+    /** The frame that owns the shared music player. */
+    private final GameFrame frame;
+
+    /** The simulation shown by the UI. */
+    private final GameWorld world;
+
+    /** The player sprite. */
     private final Player player;
 
-    /** The librarian NPC in the game. */
+    /** The librarian sprite. */
     private final Librarian librarian;
 
-    /** Handles smooth movement for the player. */
-    private final MovingPlayer movingPlayer;
-
-    /** Tracks the number of snack transfers. */
-    private int snackTransfers = 0;
+    /** Hands librarian transitions to the librarian sprite in batches on the EDT. */
+    private final LibrarianModel.EdtDispatcher librarianDispatcher;
 
-    /** Current X position of the player. */
-    private int playerX;
+    /** Collects keyboard input for the player; null while playing a replay. */
+    private final MovingPlayer movingPlayer;
 
-    /** Current Y position of the player. */
-    private int playerY;
+    /** Recorded session played instead of the keyboard, or null. */
+    private final Replay replay;
 
-    /** Flags to track whether player is at certain locations. */
-    private boolean wasAtSnackStation = false;
-    private boolean wasAtDesk = false;
+    /** Records the session into a replay file, or null when not recording. */
+    private ReplayRecorder recorder;
 
-    /** Flag to indicate if a caught screen is currently visible. */
-    private boolean isCaughtScreenVisible = false;
+    /** Fixed-timestep loop that drives all game logic. */
+    private final GameLoop gameLoop;
 
     // -------------------------------------------------------------------------
     // Constructor
     // -------------------------------------------------------------------------
 
     /**
-     * Constructs a GameController and initializes player and librarian interactions.
+     * Constructs a GameController and starts the simulation.
      *
      * @param ui the UILayout instance for the game
+     * @param frame the GameFrame providing music and sound effects
+     */
+    public GameController(UILayout ui, GameFrame frame) {
+        this(ui, frame, null);
+    }
+
+    /**
+     * Constructs a GameController and starts the simulation, played from a
+     * recording if one is given.
+     *
+     * @param ui the UILayout instance for the game, over the replay's world if replaying
+     * @param frame the GameFrame providing music and sound effects
+     * @param replay recorded session to play instead of the keyboard, or null
      */
-    public GameController(UILayout ui) {
+    public GameController(UILayout ui, GameFrame frame, Replay replay) {
         this.ui = ui;
+        this.replay = replay;
+        this.frame = frame;
+        this.world = ui.getWorld();
         this.player = ui.getPlayer();
         this.librarian = ui.getLibrarian();
 
-        // Set initial player position
-        updatePlayerPosition();
+        world.setListener(this);
+        preloadSounds();
 
-        // Initialize smooth movement
-        this.movingPlayer = new MovingPlayer(this.player, ui.getGamePanel());
-        movingPlayer.setOnMoveCallback(this::handlePlayerMovement);
+        // Only the latest state of a batch needs to be shown
+        this.librarianDispatcher = new LibrarianModel.EdtDispatcher(
+            batch -> librarian.showState(batch.get(batch.size() - 1).state)
+        );
+        world.getLibrarian().addTransitionListener(librarianDispatcher);
 
-        // Start the background game loop for librarian updates
-        startGameLoop();
+        // Initialize keyboard input, or lay out the level as recorded
+        if (replay == null) {
+            this.movingPlayer = new MovingPlayer(ui.getGamePanel());
+        } else {
+            this.movingPlayer = null;
+            ui.setLevelSizeFixed(true);
+            replay.play(world.getTickCount(), this);
+            ui.setMovableTextMessage(
+                "Replaying session " + SessionSeed.format(replay.getSeed())
+            );
+        }
+
+        // Start the fixed-timestep game loop; it parks while idle
+        this.gameLoop = new GameLoop(this::tick);
+        if (ui.getActiveRenderer() != null) {
+            gameLoop.setRenderCallback(ui.getActiveRenderer()::render);
+        }
+        gameLoop.setIdlePolicy(this);
+        if (movingPlayer != null) {
+            movingPlayer.setOnKeyPressed(gameLoop::wake);
+        }
+        gameLoop.start();
 
         // NOTE: Background music is handled by GameFrame
     }
@@ -75,188 +125,268 @@ public class GameController {
     // Player Position
     // -------------------------------------------------------------------------
 
-    /** Updates the stored player coordinates. */
-    private void updatePlayerPosition() {
-        playerX = player.getX();
-        playerY = player.getY();
-    }
-
     /** Returns the current X position of the player. */
     public int getPlayerX() {
-        return playerX;
+        return world.getPlayerX();
     }
 
     /** Returns the current Y position of the player. */
     public int getPlayerY() {
-        return playerY;
+        return world.getPlayerY();
     }
 
     // -------------------------------------------------------------------------
     // Game Loop
     // -------------------------------------------------------------------------
 
-    /** Starts a background thread to update librarian behavior continuously. */
-    private void startGameLoop() {
-        Thread thread = new Thread(() -> {
-            while (true) {
-                librarian.updateStatus();
-                try {
-                    Thread.sleep(20L); // Update every 20ms
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-        });
-        thread.setDaemon(true);
-        thread.start();
+    /**
+     * Stops the game loop, including a scheduled wake-up, the librarian
+     * updates, the performance HUD and the recording. Called when the game
+     * session ends.
+     */
+    public void stop() {
+        gameLoop.stop();
+        if (movingPlayer != null) {
+            movingPlayer.releaseAllKeys();
+        }
+        world.getLibrarian().removeTransitionListener(librarianDispatcher);
+        ui.getDebugOverlay().setHudVisible(false);
+        stopRecording();
     }
 
-    // -------------------------------------------------------------------------
-    // Player Movement Handling
-    // -------------------------------------------------------------------------
-
-    /** Handles all logic triggered when the player moves. */
-    private void handlePlayerMovement() {
-        updatePlayerPosition();
+    /** Returns the game loop driving this controller. */
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
 
-        Rectangle playerRect = player.getLabel().getBounds();
-        Rectangle snackRect = ui.getSnackstation().getLabel().getBounds();
-        Rectangle deskRect = ui.getDesk().getLabel().getBounds();
-        Rectangle playerBounds = player.getRectangleBounds();
+    /** Runs one fixed-timestep tick of the simulation and updates the view. */
+    private void tick() {
+        long start = System.nanoTime();
+        if (replay != null) {
+            boolean finished = replay.isFinished(world.getTickCount());
+            replay.play(world.getTickCount(), this);
+            world.setInput(replay.getInputX(), replay.getInputY());
+            if (!finished && replay.isFinished(world.getTickCount())) {
+                ui.setMovableTextMessage("Replay finished");
+            }
+        } else {
+            movingPlayer.applyTo(world);
+            recordInput(world.getInputX(), world.getInputY());
+        }
 
-        // Check if player is caught by the librarian
-        checkCaughtCondition();
+        if (world.tick()) {
+            ui.syncPlayer();
+            player.movingAnimation(world.isRightFacing() ? 0 : 1);
 
-        // Check collisions with all bookshelves
-        for (Bookshelf shelf : ui.getBookshelves()) {
-            Polygon hitbox = shelf.getPolygonBounds(
-                shelf.getLabel().getX(), shelf.getLabel().getY()
-            );
-            collidingWithBookshelf(playerBounds, hitbox);
+            // Refresh UI layers
+            ui.updateLayer();
+        }
+        if (world.getNpcs().size() > 0) {
+            ui.markNpcsDirty();
         }
 
-        handleSnackStation(playerRect, snackRect);
-        handleDeskInteraction(playerRect, deskRect);
+        // Repaint only what changed
+        ui.repaintDirty();
 
-        // Update debug overlay
-        ui.getDebugOverlay().repaint();
+        ui.getPerformanceMonitor().recordTick(System.nanoTime() - start);
+    }
 
-        // Update player animation based on facing direction
-        int direction = player.isRightFacing() ? 0 : 1;
-        player.movingAnimation(direction);
+    /**
+     * The game is idle while no movement key is held, until the librarian's
+     * next transition. A replay is idle while its input is no movement,
+     * until its next recorded event.
+     */
+    @Override
+    public long idleTicks() {
+        if (replay == null) {
+            return movingPlayer.isAnyKeyHeld() ? 0 : world.getTicksUntilNextEvent();
+        }
+        if (replay.getInputX() != 0 || replay.getInputY() != 0) {
+            return 0;
+        }
+        long idle = world.getTicksUntilNextEvent();
+        if (!replay.isFinished(world.getTickCount())) {
+            idle = Math.min(idle, replay.getNextEventTick() - world.getTickCount());
+        }
+        return Math.max(0, idle);
+    }
 
-        // Refresh UI layers
-        ui.updateLayer();
+    /**
+     * Advances the simulation over the ticks skipped while the loop was
+     * parked. A replay only skips up to its next recorded event and runs
+     * the remaining ticks normally, so no event is passed over.
+     */
+    @Override
+    public void skip(long ticks) {
+        if (replay == null) {
+            recordInput(0, 0);
+            world.advanceIdle(ticks);
+            return;
+        }
+        long idle = ticks;
+        if (!replay.isFinished(world.getTickCount())) {
+            idle = Math.min(ticks, Math.max(0, replay.getNextEventTick() - world.getTickCount()));
+        }
+        world.advanceIdle(idle);
+        for (long i = idle; i < ticks; i++) {
+            tick();
+        }
     }
 
     // -------------------------------------------------------------------------
-    // Caught Conditions
+    // Recording and Replay
     // -------------------------------------------------------------------------
 
-    /** Checks if the player has been caught by the librarian. */
-    private void checkCaughtCondition() {
-        if (librarian.getCurrentStateName().equals("ATTENTIVE")
-            && !isCaughtScreenVisible && player.hasSnack()) {
-
-            isCaughtScreenVisible = true;
-
-            // Stop music and play failure sound
-            getMusicPlayer().stopMusic();
-            playFailureSound();
-
-            // Show caught screen
-            SwingUtilities.invokeLater(() -> {
-                CaughtScreen caughtScreen = new CaughtScreen(
-                    ui,
-                    "You were caught by the librarian!",
-                    () -> {
-                        resetGame();
-                        isCaughtScreenVisible = false;
-                    }
-                );
-                caughtScreen.setVisible(true);
-            });
-        }
+    /**
+     * Starts recording the session into a replay file, replacing the file if
+     * it exists. Must be called before the first tick.
+     *
+     * @param path the replay file
+     * @throws IOException if the file cannot be written
+     */
+    public void startRecording(Path path) throws IOException {
+        stopRecording();
+        recorder = new ReplayRecorder(
+            path, world, ui.getStudentCount(), ui.getLibrarianCount()
+        );
     }
 
-    // -------------------------------------------------------------------------
-    // Snack Station & Desk Handling
-    // -------------------------------------------------------------------------
+    /** Ends the recording at the current tick, if recording. */
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.finish(world.getTickCount());
+        } catch (IOException e) {
+            System.err.println("Error finishing replay: " + e.getMessage());
+            e.printStackTrace();
+        }
+        recorder = null;
+    }
 
-    private void handleSnackStation(Rectangle playerRect, Rectangle snackRect) {
-        if (playerRect.intersects(snackRect)) {
-            if (!wasAtSnackStation) {
-                System.out.println("Player is at the Snack Station!");
-                wasAtSnackStation = true;
-            }
-            player.setHasSnack(true);
-        } else {
-            wasAtSnackStation = false;
+    /** Records the input of the next tick; stops recording on an error. */
+    private void recordInput(int dx, int dy) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.input(world.getTickCount(), dx, dy);
+        } catch (IOException e) {
+            recordingFailed(e);
         }
     }
 
-    private void handleDeskInteraction(Rectangle playerRect, Rectangle deskRect) {
-        if (playerRect.intersects(deskRect)) {
-            if (!wasAtDesk) {
-                System.out.println("Player is at the Desk!");
-                wasAtDesk = true;
-                if (player.hasSnack()) {
-                    snackTransfers++;
-                    ui.updateSnackCounter(snackTransfers);
-                    playPointSound();
-                }
-            }
-            player.setHasSnack(false);
-        } else {
-            wasAtDesk = false;
+    /** Reports a write error and drops the recording. */
+    private void recordingFailed(IOException e) {
+        System.err.println("Error recording replay: " + e.getMessage());
+        e.printStackTrace();
+        ReplayRecorder failed = recorder;
+        recorder = null;
+        try {
+            failed.close();
+        } catch (IOException ignored) {
+            // Already reported
         }
     }
 
+    /** Lays out the level at the size recorded in the replay. */
+    @Override
+    public void layout(int width, int height) {
+        ui.layoutLevel(width, height);
+    }
+
+    /** Resets the session where the replay recorded "Try Again". */
+    @Override
+    public void reset() {
+        resetGame();
+    }
+
     // -------------------------------------------------------------------------
-    // Bookshelf Collisions
+    // Simulation Events
     // -------------------------------------------------------------------------
 
-    private void collidingWithBookshelf(Rectangle playerBounds, Polygon hitbox) {
-        if (hitbox.intersects(playerBounds) && !isCaughtScreenVisible) {
+    @Override
+    public void laidOut(int width, int height) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.layout(world.getTickCount(), width, height);
+        } catch (IOException e) {
+            recordingFailed(e);
+        }
+    }
+
+    @Override
+    public void reachedSnackStation() {
+        System.out.println("Player is at the Snack Station!");
+    }
+
+    @Override
+    public void reachedDesk() {
+        System.out.println("Player is at the Desk!");
+    }
+
+    @Override
+    public void snackDelivered(int total) {
+        ui.updateSnackCounter(total);
+        playPointSound();
+    }
+
+    @Override
+    public void caught(GameWorld.CaughtReason reason) {
+        String message;
+        if (reason == GameWorld.CaughtReason.BOOKSHELF) {
             System.out.println("Collision with bookshelf!");
-            isCaughtScreenVisible = true;
-
-            getMusicPlayer().stopMusic();
-            playFailureSound();
-
-            SwingUtilities.invokeLater(() -> {
-                CaughtScreen caughtScreen = new CaughtScreen(
-                    ui,
-                    "You walked into a bookshelf!",
-                    () -> {
-                        resetGame();
-                        isCaughtScreenVisible = false;
-                    }
-                );
-                caughtScreen.setVisible(true);
-            });
+            message = "You walked into a bookshelf!";
+        } else {
+            message = "You were caught by the librarian!";
+        }
+
+        // Stop music and play failure sound
+        frame.getMusicPlayer().stopMusic();
+        playFailureSound();
+
+        // A replay resets itself where the recorded player pressed "Try Again"
+        if (replay != null) {
+            ui.setMovableTextMessage(message);
+            return;
         }
+
+        // The caught screen takes the key events, so releases would be lost
+        movingPlayer.releaseAllKeys();
+
+        // Show caught screen
+        SwingUtilities.invokeLater(() -> {
+            CaughtScreen caughtScreen = new CaughtScreen(ui, message, this::resetGame);
+            caughtScreen.setVisible(true);
+        });
     }
 
     // -------------------------------------------------------------------------
     // Audio
     // -------------------------------------------------------------------------
 
-    private MusicPlayer getMusicPlayer() {
-        return ((GameFrame) SwingUtilities.getWindowAncestor(ui)).getMusicPlayer();
+    /** Resource path for the sound played when a snack is delivered. */
+    private static final String POINT_SOUND = "src/main/java/com/snackademy/resources/point.wav";
+
+    /** Resource path for the sound played when the player is caught. */
+    private static final String FAILURE_SOUND =
+        "src/main/java/com/snackademy/resources/failure.wav";
+
+    /** Decodes the sound effects ahead of time so the first play is instant. */
+    private void preloadSounds() {
+        frame.getMusicPlayer().preloadSound(POINT_SOUND);
+        frame.getMusicPlayer().preloadSound(FAILURE_SOUND);
     }
 
     private void playPointSound() {
-        getMusicPlayer().playSound(
-            "src/main/java/com/snackademy/resources/point.wav"
-        );
+        frame.getMusicPlayer().playSound(POINT_SOUND);
     }
 
     private void playFailureSound() {
-        getMusicPlayer().playSound(
-            "src/main/java/com/snackademy/resources/failure.wav"
-        );
+        frame.getMusicPlayer().playSound(FAILURE_SOUND);
     }
 
     // -------------------------------------------------------------------------
@@ -265,21 +395,26 @@ public class GameController {
 
     /** Resets the game state to initial conditions. */
     private void resetGame() {
-        player.resetPosition();
-
-        int startX = ui.getSnackstation().getLabel().getX();
-        int startY = ui.getSnackstation().getLabel().getY();
-        player.moveTo(startX, startY);
-
-        snackTransfers = 0;
-        ui.updateSnackCounter(snackTransfers);
+        if (recorder != null) {
+            try {
+                recorder.reset(world.getTickCount());
+            } catch (IOException e) {
+                recordingFailed(e);
+            }
+        }
+        world.reset();
+        if (movingPlayer != null) {
+            movingPlayer.releaseAllKeys();
+        }
+        ui.syncPlayer();
+        ui.repaintDirty();
+        ui.updateSnackCounter(world.getSnacksDelivered());
 
-        player.setHasSnack(false);
         ui.setMovableTextMessage(
             "Move with the letters AWSD or the arrows but do not get caught!"
         );
 
         // Restart background music
-        ((GameFrame) SwingUtilities.getWindowAncestor(ui)).playGameMusic();
+        frame.playGameMusic();
     }
 }
@@ -1,12 +1,15 @@
 package snackademy;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import javax.swing.*;
 
 /**
  * The main JFrame for the Snackademy game.
  * <p>
  * Handles different screens (start menu, game UI, settings, leaderboard) 
- * and manages a single shared music player instance.
+ * and manages a single shared music player instance and the persistent
+ * leaderboard store.
  */
 public class GameFrame extends JFrame {
 
@@ -17,9 +20,24 @@ public class GameFrame extends JFrame {
     /** The start menu screen displayed at launch. */
     public StartMenuScreen frameStartMenu;
 
+    /** Controller of the running game session, or null when no game is running. */
+    private GameController gameController;
+
     /** Single shared music player for all screens. */
     private final MusicPlayer musicPlayer;
 
+    /** Persistent leaderboard log, or null if it could not be opened. */
+    private LeaderboardStore leaderboardStore;
+
+    /** File every game session is recorded into, or null to not record. */
+    private static Path recordPath;
+
+    /** Replay file played instead of a new game, or null to play with the keyboard. */
+    private static Path replayPath;
+
+    /** Number of startup tasks that must finish before the start menu is shown. */
+    private int pendingStartupTasks = 2;
+
     /** Resource path for start menu background music. */
     private final String menuMusic = "src/main/java/com/snackademy/resources/background.wav";
 
@@ -44,15 +62,87 @@ public class GameFrame extends JFrame {
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent e) {
-                musicPlayer.stopMusic();
+                stopGame(); // Finishes a running recording
+                musicPlayer.close();
+                closeLeaderboardStore();
             }
         });
 
-        // Initialize and display start menu
+        // Initialize the start menu and show it once images and scores are loaded
         frameStartMenu = new StartMenuScreen(this);
-        showStartMenu();
+        LoadingScreen loadingScreen = new LoadingScreen(AssetManager.getPreloadCount());
+        setContentPane(loadingScreen);
 
         setVisible(true);
+
+        AssetManager.preloadAll(loadingScreen::setProgress, this::startupTaskDone);
+        loadLeaderboard();
+    }
+
+    /** Shows the start menu once the last startup task has finished. */
+    private void startupTaskDone() {
+        pendingStartupTasks--;
+        if (pendingStartupTasks == 0) {
+            showStartMenu();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Leaderboard Persistence
+    // -------------------------------------------------------------------------
+
+    /** Replays the leaderboard log on a background thread into the start menu. */
+    private void loadLeaderboard() {
+        Thread loader = new Thread(() -> {
+            // Build the index here, so the EDT only has to swap it in
+            LeaderboardIndex index = new LeaderboardIndex();
+            LeaderboardStore store = null;
+            try {
+                store = LeaderboardStore.open(LeaderboardStore.defaultPath(), index::add);
+            } catch (IOException e) {
+                System.err.println("Failed to open leaderboard, scores will not be saved");
+                e.printStackTrace();
+            }
+
+            LeaderboardStore opened = store;
+            SwingUtilities.invokeLater(() -> {
+                leaderboardStore = opened;
+                frameStartMenu.leaderboard = index;
+                startupTaskDone();
+            });
+        }, "leaderboard-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Adds a score to the leaderboard and appends it to the persistent log.
+     *
+     * @param entry the score to save
+     */
+    public void saveScore(ScoreEntry entry) {
+        frameStartMenu.leaderboard.add(entry);
+        if (leaderboardStore != null) {
+            try {
+                leaderboardStore.append(entry);
+            } catch (IOException e) {
+                System.err.println("Failed to save score for " + entry.getName());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Forces pending scores to disk and closes the leaderboard log. */
+    private void closeLeaderboardStore() {
+        if (leaderboardStore != null) {
+            try {
+                leaderboardStore.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close leaderboard");
+                e.printStackTrace();
+            }
+            leaderboardStore = null;
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -64,15 +154,13 @@ public class GameFrame extends JFrame {
         return musicPlayer;
     }
 
-    /** Plays the start menu background music. */
+    /** Plays the start menu background music, crossfading from the current track. */
     public void playMenuMusic() {
-        musicPlayer.stopMusic();
         musicPlayer.playMusic(menuMusic, true);
     }
 
-    /** Plays the game background music. */
+    /** Plays the game background music, crossfading from the current track. */
     public void playGameMusic() {
-        musicPlayer.stopMusic();
         musicPlayer.playMusic(gameMusic, true);
     }
 
@@ -82,15 +170,26 @@ public class GameFrame extends JFrame {
 
     /** Displays the start menu screen. */
     public void showStartMenu() {
+        stopGame();
         setContentPane(frameStartMenu);
         revalidate();
         repaint();
         playMenuMusic();
     }
 
-    /** Starts the main game. */
+    /**
+     * Starts the main game. If a replay file is set, the recorded session is
+     * played instead; otherwise, if a record file is set, the new session is
+     * recorded into it.
+     */
     public void startGame() {
-        UILayout ui = new UILayout();
+        stopGame();
+        Replay replay = loadReplay();
+        UILayout ui = replay == null
+            ? new UILayout()
+            : new UILayout(
+                replay.createWorld(), replay.getStudentCount(), replay.getLibrarianCount()
+            );
         setContentPane(ui);
         revalidate();
         repaint();
@@ -100,10 +199,62 @@ public class GameFrame extends JFrame {
         ui.requestFocusInWindow();
 
         // Initialize game controller and start music
-        new GameController(ui);
+        gameController = new GameController(ui, this, replay);
+        if (replay == null && recordPath != null) {
+            try {
+                gameController.startRecording(recordPath);
+            } catch (IOException e) {
+                System.err.println("Failed to record the game to " + recordPath);
+                e.printStackTrace();
+            }
+        }
         playGameMusic();
     }
 
+    /**
+     * Reads the replay file, if one is set.
+     *
+     * @return the replay, or null if none is set or it cannot be read
+     */
+    private Replay loadReplay() {
+        if (replayPath == null) {
+            return null;
+        }
+        try {
+            return Replay.read(replayPath);
+        } catch (IOException e) {
+            System.err.println("Failed to read replay " + replayPath + ", starting a new game");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Sets the file every following game session is recorded into.
+     *
+     * @param path the replay file to write, or null to not record
+     */
+    public static void setRecordPath(Path path) {
+        recordPath = path;
+    }
+
+    /**
+     * Sets a replay file that is played whenever a game is started.
+     *
+     * @param path the replay file to play, or null to play with the keyboard
+     */
+    public static void setReplayPath(Path path) {
+        replayPath = path;
+    }
+
+    /** Stops the running game session, if any. */
+    private void stopGame() {
+        if (gameController != null) {
+            gameController.stop();
+            gameController = null;
+        }
+    }
+
     /** Displays the settings screen. */
     public void showSettingsScreen() {
         SettingsScreen settings = new SettingsScreen(this);
@@ -0,0 +1,269 @@
+package snackademy;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Fixed-timestep game loop for Snackademy.
+ * <p>
+ * A Swing timer wakes up a few times per tick and feeds the elapsed real time
+ * into an accumulator. Whole ticks of {@link #TICK_NANOS} are then consumed
+ * from the accumulator, so the game logic always advances in equal steps no
+ * matter how often the timer actually fires. Ticks run on the Event Dispatch
+ * Thread, which keeps them safe to use together with the Swing components.
+ * <p>
+ * With an {@link IdlePolicy}, the loop parks while the game has nothing to
+ * do: the timer stops and a single wake-up is scheduled on a shared daemon
+ * thread at the next deadline the policy reports. The skipped ticks are
+ * handed to the policy in one go when the loop wakes up, either at that
+ * deadline or earlier through {@link #wake()}.
+ */
+public class GameLoop {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Number of logic ticks per second. */
+    public static final int TICKS_PER_SECOND = 120;
+
+    /** Duration of a single logic tick in nanoseconds. */
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+
+    /** Delay between timer wake-ups in milliseconds. */
+    private static final int TIMER_DELAY_MS = 4;
+
+    /** Maximum number of ticks to catch up in one wake-up before dropping time. */
+    private static final int MAX_CATCH_UP_TICKS = 12;
+
+    /** Minimum number of idle ticks for which parking the loop is worth it. */
+    private static final long MIN_PARK_TICKS = 4;
+
+    /** Schedules the wake-ups of parked loops; shared, so restarts never add threads. */
+    private static final ScheduledExecutorService WAKER =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-loop-waker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    // -------------------------------------------------------------------------
+    // Idle Policy
+    // -------------------------------------------------------------------------
+
+    /** Tells the loop when the game is idle and advances it over skipped ticks. */
+    public interface IdlePolicy {
+
+        /**
+         * Returns how many ticks from now the game next has something to do
+         * without input, or 0 if it is busy now.
+         *
+         * @return the number of idle ticks, or 0
+         */
+        long idleTicks();
+
+        /**
+         * Advances the game over ticks that were skipped while the loop was parked.
+         *
+         * @param ticks number of skipped ticks
+         */
+        void skip(long ticks);
+    }
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** The logic executed once per tick. */
+    private final Runnable tick;
+
+    /** Optional frame rendering executed after the ticks of a wake-up, or null. */
+    private Runnable render;
+
+    /** Timer that drives the loop on the Event Dispatch Thread. */
+    private final Timer timer;
+
+    /** Time of the previous wake-up in nanoseconds. */
+    private long lastTime;
+
+    /** Real time that has not yet been consumed by ticks. */
+    private long accumulator;
+
+    /** Total number of ticks executed since the loop was started. */
+    private long tickCount;
+
+    /** Duration of the most recent tick in nanoseconds. */
+    private long lastTickNanos;
+
+    /** Decides when the loop may park, or null to never park. */
+    private IdlePolicy idlePolicy;
+
+    /** Whether the loop is parked, and its scheduled wake-up. */
+    private boolean parked;
+    private ScheduledFuture<?> wakeUp;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs a game loop that runs the given logic at a fixed rate.
+     *
+     * @param tick the logic to run once per tick
+     */
+    public GameLoop(Runnable tick) {
+        this.tick = tick;
+        this.timer = new Timer(TIMER_DELAY_MS, e -> advance());
+        this.timer.setCoalesce(true);
+    }
+
+    // -------------------------------------------------------------------------
+    // Loop Control
+    // -------------------------------------------------------------------------
+
+    /**
+     * Sets logic that renders a frame. It runs at most once per wake-up, and
+     * only after at least one tick has advanced the game.
+     *
+     * @param render the frame rendering logic, or null for none
+     */
+    public void setRenderCallback(Runnable render) {
+        this.render = render;
+    }
+
+    /**
+     * Sets the policy that lets the loop park while the game is idle.
+     *
+     * @param idlePolicy the policy, or null to keep the timer running
+     */
+    public void setIdlePolicy(IdlePolicy idlePolicy) {
+        this.idlePolicy = idlePolicy;
+    }
+
+    /** Starts the loop. Has no effect if it is already running. */
+    public void start() {
+        if (isRunning()) {
+            return;
+        }
+        lastTime = System.nanoTime();
+        accumulator = 0;
+        timer.start();
+    }
+
+    /** Stops the loop and cancels a scheduled wake-up. Ticks that have not run yet are discarded. */
+    public void stop() {
+        timer.stop();
+        parked = false;
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+    }
+
+    /** Returns whether the loop is currently running, parked or not. */
+    public boolean isRunning() {
+        return timer.isRunning() || parked;
+    }
+
+    /** Returns whether the loop is parked until the game has something to do. */
+    public boolean isParked() {
+        return parked;
+    }
+
+    /**
+     * Wakes a parked loop, for example when a key is pressed. The ticks
+     * skipped while parked are handed to the idle policy first. Must be
+     * called on the Event Dispatch Thread; has no effect if not parked.
+     */
+    public void wake() {
+        if (!parked) {
+            return;
+        }
+        parked = false;
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+
+        long now = System.nanoTime();
+        accumulator += now - lastTime;
+        lastTime = now;
+        long skipped = accumulator / TICK_NANOS;
+        accumulator -= skipped * TICK_NANOS;
+        if (skipped > 0) {
+            idlePolicy.skip(skipped);
+            tickCount += skipped;
+            if (render != null) {
+                render.run();
+            }
+        }
+        timer.start();
+    }
+
+    /**
+     * Parks the loop if the idle policy reports enough idle ticks. The
+     * wake-up is scheduled for the start of the last idle tick, so the tick
+     * with the next event runs normally.
+     */
+    private void parkIfIdle() {
+        if (idlePolicy == null) {
+            return;
+        }
+        long idle = idlePolicy.idleTicks();
+        if (idle < MIN_PARK_TICKS) {
+            return;
+        }
+        timer.stop();
+        parked = true;
+        long delay = (idle - 1) * TICK_NANOS - accumulator;
+        wakeUp = WAKER.schedule(
+            () -> SwingUtilities.invokeLater(this::wake), delay, TimeUnit.NANOSECONDS
+        );
+    }
+
+    /** Consumes the elapsed time in whole ticks. */
+    private void advance() {
+        long now = System.nanoTime();
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        int steps = 0;
+        while (accumulator >= TICK_NANOS && steps < MAX_CATCH_UP_TICKS) {
+            long start = System.nanoTime();
+            tick.run();
+            lastTickNanos = System.nanoTime() - start;
+
+            accumulator -= TICK_NANOS;
+            tickCount++;
+            steps++;
+        }
+
+        // After a long stall, drop the backlog instead of fast-forwarding the game
+        if (accumulator >= TICK_NANOS) {
+            accumulator = 0;
+        }
+
+        if (steps > 0 && render != null) {
+            render.run();
+        }
+        parkIfIdle();
+    }
+
+    // -------------------------------------------------------------------------
+    // Statistics
+    // -------------------------------------------------------------------------
+
+    /** Returns the number of ticks executed since the loop was created. */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /** Returns the duration of the most recent tick in nanoseconds. */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+}
@@ -0,0 +1,695 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Headless simulation of a Snackademy game session.
+ * <p>
+ * Holds every game rule and the world state in plain coordinates: the
+ * player, the librarian, the desk, the snack station and the bookshelves.
+ * Nothing in here touches Swing, so a session can run on a server without a
+ * display and as fast as the CPU allows. The Swing UI is a view over this
+ * model: {@link GameController} feeds keyboard input in, calls
+ * {@link #tick()} from the {@link GameLoop} and updates the components from
+ * the model and its {@link Listener} events.
+ * <p>
+ * Every tick advances simulation time by {@link GameLoop#TICK_NANOS} and
+ * performs the same steps in the same order: player movement, librarian
+ * state, caught check, bookshelf collisions and finally snack and desk
+ * scoring.
+ * <p>
+ * Player movement is velocity-based: the input is a direction, and the
+ * player covers {@code speed} pixels every {@link #SPEED_INTERVAL_NANOS},
+ * whatever the tick rate. Diagonal movement is normalized, so it is not
+ * faster than moving along one axis.
+ * <p>
+ * Besides the player and the librarian, a level can hold any number of
+ * wandering students and extra librarians. They live in an
+ * {@link EntityRegistry} and are run by the {@link EntitySystems}; an extra
+ * librarian that is attentive catches the player just like the main one.
+ * <p>
+ * All randomness comes from one session seed (see {@link SessionSeed}). It is
+ * split into separate streams for the layout, the librarian and the other
+ * characters, so a session with the same seed, settings and input plays out
+ * exactly the same, and adding students does not change the level or the
+ * librarian's timing.
+ * <p>
+ * Librarians only catch what they see: the player must be inside their
+ * view cone and not hidden behind a bookshelf (see {@link LineOfSight}).
+ * The main librarian looks up into the library from the bottom of the level.
+ * What each librarian sees is cached until the player or that librarian
+ * moves.
+ */
+public class GameWorld {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Width and height of the player sprite in pixels. */
+    public static final int PLAYER_SIZE = 100;
+
+    /** Distance from the top of the player sprite to its feet hitbox, and the hitbox height. */
+    public static final int FEET_OFFSET = PLAYER_SIZE * 7 / 8;
+    public static final int FEET_HEIGHT = PLAYER_SIZE / 8;
+
+    /**
+     * Time in which the player covers {@code speed} pixels. Matches the old
+     * movement of one step per keyboard auto-repeat event (about 30 per second).
+     */
+    public static final long SPEED_INTERVAL_NANOS = 1_000_000_000L / 30;
+
+    /** Duration of a tick in seconds, for the entity systems. */
+    private static final float TICK_SECONDS = GameLoop.TICK_NANOS / 1e9f;
+
+    /** Scale of each axis when moving diagonally, so the total distance stays the same. */
+    private static final double DIAGONAL = Math.sqrt(0.5);
+
+    /** Direction the main librarian looks in: up, towards the bookshelves. */
+    public static final double LIBRARIAN_FACING_X = 0;
+    public static final double LIBRARIAN_FACING_Y = -1;
+
+    /** Ways the player can get caught. */
+    public enum CaughtReason {
+        /** A librarian saw the player moving with a snack. */
+        LIBRARIAN,
+        /** The player walked into a bookshelf. */
+        BOOKSHELF
+    }
+
+    /**
+     * Receives the events of a simulation. All methods have empty defaults,
+     * so listeners only implement what they need.
+     */
+    public interface Listener {
+
+        /** Called when the level was laid out for a new size. */
+        default void laidOut(int width, int height) {
+        }
+
+        /** Called when the librarian changes state. */
+        default void librarianChanged(LibrarianModel.State state) {
+        }
+
+        /** Called when the player steps onto the snack station. */
+        default void reachedSnackStation() {
+        }
+
+        /** Called when the player steps onto the desk. */
+        default void reachedDesk() {
+        }
+
+        /** Called when a snack is delivered, with the new total. */
+        default void snackDelivered(int total) {
+        }
+
+        /** Called when the player gets caught. */
+        default void caught(CaughtReason reason) {
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Seed of this session. */
+    private final long seed;
+
+    /** Seed of the layout; every layout starts from it, so resizing keeps the same level. */
+    private final long layoutSeed;
+
+    /** Random source for the students and extra librarians. */
+    private final SplittableRandom npcRandom;
+
+    /** Distance the player covers per {@link #SPEED_INTERVAL_NANOS}, in pixels. */
+    private final int speed;
+
+    /** Distance the player covers per tick along one axis, in pixels. */
+    private final double stepPerTick;
+
+    /** Receives the events of this simulation. */
+    private Listener listener = new Listener() { };
+
+    /** Size of the level in pixels. */
+    private int width;
+    private int height;
+
+    /** Player position (top-left corner of the sprite), rounded to pixels. */
+    private int playerX;
+    private int playerY;
+
+    /** Exact player position; movement of less than a pixel per tick adds up. */
+    private double exactX;
+    private double exactY;
+
+    /** Player state. */
+    private boolean rightFacing = true;
+    private boolean hasSnack = false;
+
+    /** Hitbox around the player's feet, used for collisions. */
+    private final Rectangle playerFeet = new Rectangle();
+
+    /** Area covered by the player sprite, used for interactions. */
+    private final Rectangle playerSprite = new Rectangle();
+
+    /** Scratch hitbox for {@link #collidesWithShelf(int, int)}. */
+    private final Rectangle probe = new Rectangle();
+
+    /** Static objects of the level. */
+    private final Rectangle snackstation = new Rectangle();
+    private final Rectangle desk = new Rectangle();
+    private final Rectangle librarianBounds = new Rectangle();
+    private final List<ShelfModel> shelves = new ArrayList<>();
+    private final List<ShelfModel> shelvesView = Collections.unmodifiableList(shelves);
+    private final BookshelfGrid shelfGrid = new BookshelfGrid();
+    private final LineOfSight sight = new LineOfSight(shelves, shelfGrid);
+
+    /** Whether the player can walk from the snack station to the desk. */
+    private boolean reachable;
+
+    /** The librarian's attention cycle. */
+    private final LibrarianModel librarian;
+
+    /** Wandering students and extra librarians. */
+    private final EntityRegistry npcs = new EntityRegistry();
+
+    /** Whether the main librarian sees the player, valid until either moves. */
+    private boolean librarianSeesPlayer;
+    private boolean librarianSightValid;
+
+    /** Direction of movement for the next tick: -1, 0 or 1 (negative is left or up). */
+    private int inputX;
+    private int inputY;
+
+    /** Simulation time and number of ticks run. */
+    private long timeNanos;
+    private long tickCount;
+
+    /** Session progress. */
+    private int snacksDelivered = 0;
+    private boolean caught = false;
+
+    /** Flags to track whether player is at certain locations. */
+    private boolean wasAtSnackStation = false;
+    private boolean wasAtDesk = false;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs a simulation. Call {@link #layout(int, int)} before the first tick.
+     *
+     * @param shelfCount number of bookshelves in the level
+     * @param speed distance the player covers per {@link #SPEED_INTERVAL_NANOS}, in pixels
+     * @param seed session seed all randomness is derived from
+     */
+    public GameWorld(int shelfCount, int speed, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        this.seed = seed;
+        this.layoutSeed = root.nextLong();
+        this.librarian = new LibrarianModel(root.split());
+        this.npcRandom = root.split();
+        this.speed = speed;
+        this.stepPerTick = (double) speed * GameLoop.TICK_NANOS / SPEED_INTERVAL_NANOS;
+        for (int i = 0; i < shelfCount; i++) {
+            shelves.add(new ShelfModel());
+        }
+    }
+
+    /**
+     * Sets the receiver of the simulation events.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : new Listener() { };
+    }
+
+    // -------------------------------------------------------------------------
+    // Layout
+    // -------------------------------------------------------------------------
+
+    /**
+     * Lays out the level for the given size and puts the player on the snack
+     * station. The bookshelves are placed by a {@link LevelGenerator} in a
+     * random order drawn from the session seed, the same order every time,
+     * leaving a path from the snack station to the desk.
+     *
+     * @param w width of the level in pixels
+     * @param h height of the level in pixels
+     */
+    public void layout(int w, int h) {
+        width = w;
+        height = h;
+
+        // Snackstation
+        int snackW = w / 8;
+        int snackH = h / 4;
+        snackstation.setBounds(10, h / 2 - snackH / 2, snackW, snackH);
+
+        // Desk
+        int deskW = w / 8;
+        int deskH = h / 4;
+        desk.setBounds(w - deskW - 10, h / 2 - deskH / 2, deskW, deskH);
+
+        // Librarian
+        int libW = w / 8;
+        int libH = h / 4;
+        librarianBounds.setBounds(w / 2 - libW / 2, 4 * h / 5 - libH / 2, libW, libH);
+
+        // Bookshelves
+        LevelGenerator generator = new LevelGenerator(w, h, snackstation.x, snackstation.y, desk);
+        reachable = generator.generate(shelves, w / 8, h / 4, new SplittableRandom(layoutSeed));
+        shelfGrid.rebuild(shelves);
+
+        movePlayer(snackstation.x, snackstation.y);
+        invalidateSight();
+        listener.laidOut(w, h);
+    }
+
+    /**
+     * Adds wandering students and extra librarians at random free spots.
+     * Call after {@link #layout(int, int)}.
+     *
+     * @param students number of students to add
+     * @param librarians number of extra librarians to add
+     */
+    public void spawnNpcs(int students, int librarians) {
+        for (int i = 0; i < students; i++) {
+            EntitySystems.spawn(npcs, EntityRegistry.STUDENT, this, npcRandom, getTimeMillis());
+        }
+        for (int i = 0; i < librarians; i++) {
+            EntitySystems.spawn(npcs, EntityRegistry.LIBRARIAN, this, npcRandom, getTimeMillis());
+        }
+    }
+
+    /** Resets the session after the player was caught: back to the start, no snacks. */
+    public void reset() {
+        movePlayer(snackstation.x, snackstation.y);
+        snacksDelivered = 0;
+        hasSnack = false;
+        caught = false;
+        inputX = 0;
+        inputY = 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // Simulation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Sets the direction the player moves in during the next tick, usually
+     * from the keys held down. Only the signs are used. Ignored while caught.
+     *
+     * @param directionX horizontal direction (negative is left, 0 is none)
+     * @param directionY vertical direction (negative is up, 0 is none)
+     */
+    public void setInput(int directionX, int directionY) {
+        inputX = Integer.signum(directionX);
+        inputY = Integer.signum(directionY);
+    }
+
+    /**
+     * Runs one fixed-timestep tick.
+     *
+     * @return true if the player moved during this tick
+     */
+    public boolean tick() {
+        tickCount++;
+        timeNanos += GameLoop.TICK_NANOS;
+
+        boolean moved = false;
+        if (!caught) {
+            moved = applyInput();
+        }
+        inputX = 0;
+        inputY = 0;
+
+        if (librarian.update(getTimeMillis())) {
+            listener.librarianChanged(librarian.getState());
+        }
+        if (npcs.size() > 0) {
+            EntitySystems.update(npcs, this, npcRandom, getTimeMillis(), TICK_SECONDS);
+        }
+
+        if (moved) {
+            handlePlayerMovement();
+        }
+        return moved;
+    }
+
+    /**
+     * Returns the number of ticks until the next tick in which something
+     * happens without input: the next librarian transition, or the next
+     * tick if there are students and extra librarians to run.
+     *
+     * @return ticks until the next scheduled event, at least 1
+     */
+    public long getTicksUntilNextEvent() {
+        if (npcs.size() > 0) {
+            return 1;
+        }
+        return Math.max(1, firstTickAt(librarian.getNextTransitionMillis()) - tickCount);
+    }
+
+    /**
+     * Advances the simulation by a number of ticks in which there is no
+     * input, jumping straight from one librarian transition to the next.
+     * Has the same result as calling {@link #tick()} that often without
+     * input, but costs the same for a second as for an hour.
+     *
+     * @param ticks number of ticks to advance
+     */
+    public void advanceIdle(long ticks) {
+        inputX = 0;
+        inputY = 0;
+        if (npcs.size() > 0) {
+            for (long i = 0; i < ticks; i++) {
+                tick();
+            }
+            return;
+        }
+        long end = tickCount + ticks;
+        while (tickCount < end) {
+            long due = Math.max(tickCount + 1, firstTickAt(librarian.getNextTransitionMillis()));
+            tickCount = Math.min(due, end);
+            timeNanos = tickCount * GameLoop.TICK_NANOS;
+            if (librarian.update(getTimeMillis())) {
+                listener.librarianChanged(librarian.getState());
+            }
+        }
+    }
+
+    /** Returns the first tick whose simulation time in milliseconds reaches the given time. */
+    private static long firstTickAt(long millis) {
+        return Math.floorDiv(millis * 1_000_000L + GameLoop.TICK_NANOS - 1, GameLoop.TICK_NANOS);
+    }
+
+    /**
+     * Moves the player one tick along the requested direction.
+     *
+     * @return true if any movement was requested
+     */
+    private boolean applyInput() {
+        if (inputX == 0 && inputY == 0) {
+            return false;
+        }
+        if (inputX != 0) {
+            rightFacing = inputX > 0;
+        }
+
+        double step = stepPerTick;
+        if (inputX != 0 && inputY != 0) {
+            step *= DIAGONAL;
+        }
+        exactX = Math.max(0, exactX + inputX * step);
+        exactY = Math.max(0, exactY + inputY * step);
+        setPlayerPosition((int) Math.round(exactX), (int) Math.round(exactY));
+        return true;
+    }
+
+    /** Handles all rules triggered when the player has moved during a tick. */
+    private void handlePlayerMovement() {
+        // Check if player is caught by the librarian or an extra librarian
+        if (!caught && hasSnack && isPlayerSeen()) {
+            catchPlayer(CaughtReason.LIBRARIAN);
+        }
+
+        // Check collisions with the bookshelves near the player only
+        int candidates = shelfGrid.query(playerFeet);
+        for (int i = 0; i < candidates; i++) {
+            ShelfModel shelf = shelves.get(shelfGrid.getResult(i));
+            if (shelf.intersects(playerFeet) && !caught) {
+                catchPlayer(CaughtReason.BOOKSHELF);
+            }
+        }
+
+        handleSnackStation();
+        handleDeskInteraction();
+    }
+
+    /**
+     * Checks whether the player's feet would touch a bookshelf if the player
+     * stood at the given position. Does not move the player.
+     *
+     * @param x player x coordinate to test
+     * @param y player y coordinate to test
+     * @return true if a bookshelf hitbox overlaps the feet at that position
+     */
+    public boolean collidesWithShelf(int x, int y) {
+        return collidesWithShelf(x, y + FEET_OFFSET, PLAYER_SIZE, FEET_HEIGHT);
+    }
+
+    /**
+     * Checks whether a hitbox would touch a bookshelf.
+     *
+     * @param x left edge of the hitbox
+     * @param y top edge of the hitbox
+     * @param w hitbox width
+     * @param h hitbox height
+     * @return true if a bookshelf hitbox overlaps it
+     */
+    public boolean collidesWithShelf(int x, int y, int w, int h) {
+        probe.setBounds(x, y, w, h);
+        int candidates = shelfGrid.query(probe);
+        for (int i = 0; i < candidates; i++) {
+            if (shelves.get(shelfGrid.getResult(i)).intersects(probe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an attentive librarian sees the player. Librarians that
+     * are not attentive see nothing. Sight is only recomputed when the
+     * player or a librarian has moved since the last check.
+     *
+     * @return true if the main or an extra librarian sees the player
+     */
+    public boolean isPlayerSeen() {
+        if (librarian.isAttentive()) {
+            if (!librarianSightValid) {
+                librarianSeesPlayer = sight.canSee(getLibrarianEyeX(), getLibrarianEyeY(),
+                    LIBRARIAN_FACING_X, LIBRARIAN_FACING_Y, playerFeet);
+                librarianSightValid = true;
+            }
+            if (librarianSeesPlayer) {
+                return true;
+            }
+        }
+        return EntitySystems.watch(npcs, sight, playerFeet);
+    }
+
+    /** Drops all cached sight, because the player or the level moved. */
+    private void invalidateSight() {
+        librarianSightValid = false;
+        npcs.invalidateSight();
+    }
+
+    /** Marks the player as caught and reports it. */
+    private void catchPlayer(CaughtReason reason) {
+        caught = true;
+        listener.caught(reason);
+    }
+
+    private void handleSnackStation() {
+        if (playerSprite.intersects(snackstation)) {
+            if (!wasAtSnackStation) {
+                wasAtSnackStation = true;
+                listener.reachedSnackStation();
+            }
+            hasSnack = true;
+        } else {
+            wasAtSnackStation = false;
+        }
+    }
+
+    private void handleDeskInteraction() {
+        if (playerSprite.intersects(desk)) {
+            if (!wasAtDesk) {
+                wasAtDesk = true;
+                listener.reachedDesk();
+                if (hasSnack) {
+                    snacksDelivered++;
+                    listener.snackDelivered(snacksDelivered);
+                }
+            }
+            hasSnack = false;
+        } else {
+            wasAtDesk = false;
+        }
+    }
+
+    /** Puts the player at a whole pixel position. */
+    private void movePlayer(int x, int y) {
+        exactX = x;
+        exactY = y;
+        setPlayerPosition(x, y);
+    }
+
+    /** Moves the player's rounded position and its hitboxes. */
+    private void setPlayerPosition(int x, int y) {
+        if (x != playerX || y != playerY) {
+            invalidateSight();
+        }
+        playerX = x;
+        playerY = y;
+        playerFeet.setBounds(x, y + FEET_OFFSET, PLAYER_SIZE, FEET_HEIGHT);
+        playerSprite.setBounds(x, y, PLAYER_SIZE, PLAYER_SIZE);
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /** Returns the seed all randomness of this session is derived from. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the level width in pixels. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Returns the level height in pixels. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** Returns the distance the player covers per {@link #SPEED_INTERVAL_NANOS}, in pixels. */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /** Returns the distance the player covers per tick along one axis, in pixels. */
+    public double getStepPerTick() {
+        return stepPerTick;
+    }
+
+    /** Returns the player's x coordinate. */
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    /** Returns the player's y coordinate. */
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    /** Returns the horizontal direction set for the next tick: -1, 0 or 1. */
+    public int getInputX() {
+        return inputX;
+    }
+
+    /** Returns the vertical direction set for the next tick: -1, 0 or 1. */
+    public int getInputY() {
+        return inputY;
+    }
+
+    /** Returns whether the player is facing right. */
+    public boolean isRightFacing() {
+        return rightFacing;
+    }
+
+    /** Returns whether the player carries a snack. */
+    public boolean hasSnack() {
+        return hasSnack;
+    }
+
+    /**
+     * Returns the hitbox around the player's feet. The rectangle is shared
+     * and updated in place; callers must not modify it.
+     */
+    public Rectangle getPlayerFeet() {
+        return playerFeet;
+    }
+
+    /**
+     * Returns the area covered by the player sprite. The rectangle is shared
+     * and updated in place; callers must not modify it.
+     */
+    public Rectangle getPlayerSprite() {
+        return playerSprite;
+    }
+
+    /** Returns the bounds of the snack station; callers must not modify it. */
+    public Rectangle getSnackstation() {
+        return snackstation;
+    }
+
+    /** Returns the bounds of the desk; callers must not modify it. */
+    public Rectangle getDesk() {
+        return desk;
+    }
+
+    /** Returns the bounds of the librarian; callers must not modify it. */
+    public Rectangle getLibrarianBounds() {
+        return librarianBounds;
+    }
+
+    /** Returns the x coordinate of the main librarian's eye: the middle of its feet. */
+    public double getLibrarianEyeX() {
+        return librarianBounds.x + librarianBounds.width / 2.0;
+    }
+
+    /** Returns the y coordinate of the main librarian's eye: the middle of its feet. */
+    public double getLibrarianEyeY() {
+        return librarianBounds.y + librarianBounds.height;
+    }
+
+    /** Returns the line of sight through the bookshelves of the level. */
+    public LineOfSight getLineOfSight() {
+        return sight;
+    }
+
+    /**
+     * Returns whether the player can walk from the snack station to the desk
+     * without touching a bookshelf. Only false for levels too small or too
+     * crowded to leave a path.
+     */
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    /** Returns the bookshelves, in a list that cannot be modified. */
+    public List<ShelfModel> getShelves() {
+        return shelvesView;
+    }
+
+    /** Returns the librarian's attention cycle. */
+    public LibrarianModel getLibrarian() {
+        return librarian;
+    }
+
+    /** Returns the students and extra librarians of the level. */
+    public EntityRegistry getNpcs() {
+        return npcs;
+    }
+
+    /** Returns the number of snacks delivered in this session. */
+    public int getSnacksDelivered() {
+        return snacksDelivered;
+    }
+
+    /** Returns whether the player is caught and waiting for a reset. */
+    public boolean isCaught() {
+        return caught;
+    }
+
+    /** Returns the number of ticks run. */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /** Returns the simulation time in milliseconds. */
+    public long getTimeMillis() {
+        return timeNanos / 1_000_000L;
+    }
+}
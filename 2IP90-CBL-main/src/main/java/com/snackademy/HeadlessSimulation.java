@@ -0,0 +1,396 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Runs Snackademy sessions without a display, as fast as the CPU allows.
+ * <p>
+ * A {@link Policy} plays the part of the keyboard and the "Try Again" button
+ * resets the session whenever the player is caught. Used for balancing and
+ * regression runs on machines without a screen:
+ * <pre>
+ * java -Djava.awt.headless=true snackademy.HeadlessSimulation [sessions] [seconds] [shelves] [speed]
+ * java -Djava.awt.headless=true snackademy.HeadlessSimulation --replay recording.snkr
+ * </pre>
+ * Session seeds are drawn from a base seed, so runs are reproducible; the
+ * levels of all sessions are laid out in parallel up front. A
+ * {@link Replay} recorded in the game runs the same way through
+ * {@link #replay(Replay)}, as fast as the CPU allows.
+ */
+public class HeadlessSimulation {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Level size used for headless runs (the game panel of the default window). */
+    public static final int WIDTH = 1000;
+    public static final int HEIGHT = 650;
+
+    // -------------------------------------------------------------------------
+    // Policies and Results
+    // -------------------------------------------------------------------------
+
+    /** Decides the player's input for every tick. */
+    public interface Policy {
+
+        /**
+         * Sets the input for the next tick through {@link GameWorld#setInput(int, int)}.
+         *
+         * @param world the simulation, before the tick runs
+         */
+        void control(GameWorld world);
+    }
+
+    /** Totals of a headless run. */
+    public static final class Result implements GameWorld.Listener {
+
+        /** Number of ticks simulated. */
+        public long ticks;
+
+        /** Snacks delivered over all attempts. */
+        public int snacksDelivered;
+
+        /** Highest number of snacks delivered in a single attempt. */
+        public int bestAttempt;
+
+        /** Times the player was caught, per reason. */
+        public int caughtByLibrarian;
+        public int caughtByBookshelf;
+
+        @Override
+        public void snackDelivered(int total) {
+            snacksDelivered++;
+            bestAttempt = Math.max(bestAttempt, total);
+        }
+
+        @Override
+        public void caught(GameWorld.CaughtReason reason) {
+            if (reason == GameWorld.CaughtReason.LIBRARIAN) {
+                caughtByLibrarian++;
+            } else {
+                caughtByBookshelf++;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Running
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs a laid-out simulation for a number of ticks. Whenever the player is
+     * caught, the session is reset, as if "Try Again" was pressed.
+     *
+     * @param world the simulation, already laid out
+     * @param policy decides the input for every tick
+     * @param ticks number of ticks to run
+     * @return the totals of the run
+     */
+    public static Result run(GameWorld world, Policy policy, long ticks) {
+        try {
+            return run(world, policy, ticks, null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Not recording", e); // Cannot happen
+        }
+    }
+
+    /**
+     * Runs a laid-out simulation like {@link #run(GameWorld, Policy, long)}
+     * and records every input and reset.
+     *
+     * @param world the simulation, already laid out, before its first tick
+     * @param policy decides the input for every tick
+     * @param ticks number of ticks to run
+     * @param recorder records the run, or null; not finished by this method
+     * @return the totals of the run
+     * @throws IOException if the recording cannot be written
+     */
+    public static Result run(GameWorld world, Policy policy, long ticks,
+                             ReplayRecorder recorder) throws IOException {
+        Result result = new Result();
+        world.setListener(result);
+        for (long i = 0; i < ticks; i++) {
+            if (world.isCaught()) {
+                world.reset();
+                if (recorder != null) {
+                    recorder.reset(world.getTickCount());
+                }
+            }
+            policy.control(world);
+            if (recorder != null) {
+                recorder.input(world.getTickCount(), world.getInputX(), world.getInputY());
+            }
+            world.tick();
+        }
+        result.ticks = ticks;
+        world.setListener(null);
+        return result;
+    }
+
+    /**
+     * Plays a recorded session from the start to its end in a new simulation.
+     *
+     * @param replay the recording
+     * @return the totals of the replayed session
+     */
+    public static Result replay(Replay replay) {
+        GameWorld world = replay.createWorld();
+        Result result = new Result();
+        world.setListener(result);
+        Replay.Handler handler = new Replay.Handler() {
+            @Override
+            public void layout(int width, int height) {
+                // Same as UILayout.layoutLevel
+                world.layout(width, height);
+                if (world.getNpcs().size() == 0) {
+                    world.spawnNpcs(replay.getStudentCount(), replay.getLibrarianCount());
+                }
+            }
+
+            @Override
+            public void reset() {
+                world.reset();
+            }
+        };
+
+        replay.rewind();
+        while (!replay.isFinished(world.getTickCount())) {
+            replay.play(world.getTickCount(), handler);
+            world.setInput(replay.getInputX(), replay.getInputY());
+            world.tick();
+        }
+        result.ticks = world.getTickCount();
+        world.setListener(null);
+        return result;
+    }
+
+    /**
+     * Returns a simple courier bot: it walks to the snack station, then to the
+     * desk, along a shortest path around the bookshelves, and stands still
+     * while carrying a snack unless the librarian is inattentive. The path is
+     * planned on a lattice of {@code speed} pixels and followed by steering
+     * towards one lattice point after the other.
+     *
+     * @return a new courier policy
+     */
+    public static Policy courier() {
+        return new Courier();
+    }
+
+    /** The courier bot returned by {@link #courier()}. */
+    private static final class Courier implements Policy {
+
+        /** Step directions: the 8 neighbours on the movement lattice. */
+        private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+        private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+        /** Lattice points of the planned path, and the index of the next one. */
+        private int[] pathX = new int[0];
+        private int[] pathY = new int[0];
+        private int next;
+
+        /** Whether a path has been planned, and whether it leads to the desk. */
+        private boolean planned;
+        private boolean toDesk;
+
+        @Override
+        public void control(GameWorld world) {
+            if (world.hasSnack()
+                && world.getLibrarian().getState() != LibrarianModel.State.INATTENTIVE) {
+                world.setInput(0, 0);
+                return;
+            }
+
+            if (!planned || toDesk != world.hasSnack() || next >= pathX.length) {
+                plan(world);
+            }
+
+            // Closer than half a tick's movement, plus rounding, counts as there
+            double tolerance = world.getStepPerTick() / 2 + 0.5;
+            while (next < pathX.length
+                && Math.abs(pathX[next] - world.getPlayerX()) <= tolerance
+                && Math.abs(pathY[next] - world.getPlayerY()) <= tolerance) {
+                next++;
+            }
+            if (next >= pathX.length) {
+                world.setInput(0, 0); // No way to the target, or waiting for a new plan
+                planned = false;
+                return;
+            }
+
+            int dx = pathX[next] - world.getPlayerX();
+            int dy = pathY[next] - world.getPlayerY();
+            world.setInput(
+                Math.abs(dx) > tolerance ? dx : 0,
+                Math.abs(dy) > tolerance ? dy : 0
+            );
+        }
+
+        /**
+         * Plans a shortest path with a breadth-first search over all positions
+         * reachable in whole steps without touching a shelf.
+         */
+        private void plan(GameWorld world) {
+            planned = true;
+            toDesk = world.hasSnack();
+            Rectangle target = toDesk ? world.getDesk() : world.getSnackstation();
+            pathX = new int[0];
+            pathY = new int[0];
+            next = 0;
+            int playerX = world.getPlayerX();
+            int playerY = world.getPlayerY();
+
+            int step = world.getSpeed();
+            // The lattice runs through the start position on the snack station,
+            // so every plan uses the same lattice points
+            int originX = world.getSnackstation().x % step;
+            int originY = world.getSnackstation().y % step;
+            int columns = (world.getWidth() - GameWorld.PLAYER_SIZE - originX) / step + 1;
+            int rows = (world.getHeight() - GameWorld.PLAYER_SIZE - originY) / step + 1;
+            if (columns <= 0 || rows <= 0) {
+                return;
+            }
+
+            int[] from = new int[columns * rows];
+            Arrays.fill(from, -1);
+            int[] queue = new int[columns * rows];
+            int startX = Math.max(0, Math.round((float) (playerX - originX) / step));
+            int startY = Math.max(0, Math.round((float) (playerY - originY) / step));
+            int start = Math.min(rows - 1, startY) * columns + Math.min(columns - 1, startX);
+            from[start] = start;
+            queue[0] = start;
+
+            Rectangle sprite = new Rectangle(0, 0, GameWorld.PLAYER_SIZE, GameWorld.PLAYER_SIZE);
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                int cell = queue[head++];
+                int cx = cell % columns;
+                int cy = cell / columns;
+                sprite.setLocation(originX + cx * step, originY + cy * step);
+                if (cell != start && sprite.intersects(target)) { // Moving onto it scores
+                    buildPath(from, cell, columns, originX, originY, step);
+                    return;
+                }
+                for (int d = 0; d < DX.length; d++) {
+                    int nx = cx + DX[d];
+                    int ny = cy + DY[d];
+                    if (nx < 0 || ny < 0 || nx >= columns || ny >= rows) {
+                        continue;
+                    }
+                    int neighbour = ny * columns + nx;
+                    // Diagonal steps must not cut the corner of a shelf
+                    if (from[neighbour] < 0
+                        && isClear(world, originX + nx * step, originY + ny * step)
+                        && isClear(world, originX + nx * step, originY + cy * step)
+                        && isClear(world, originX + cx * step, originY + ny * step)) {
+                        from[neighbour] = cell;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks that the player can stand at a position with room to spare on
+         * every side, since the player only steers to within the tolerance of
+         * the planned lattice points.
+         */
+        private static boolean isClear(GameWorld world, int x, int y) {
+            int m = margin(world);
+            return !world.collidesWithShelf(x - m, y - m)
+                && !world.collidesWithShelf(x + m, y - m)
+                && !world.collidesWithShelf(x - m, y + m)
+                && !world.collidesWithShelf(x + m, y + m);
+        }
+
+        /** Distance within which a lattice point counts as reached, in whole pixels. */
+        private static int margin(GameWorld world) {
+            return (int) Math.ceil(world.getStepPerTick() / 2 + 0.5);
+        }
+
+        /** Turns the search tree into the list of lattice points to the goal. */
+        private void buildPath(int[] from, int goal, int columns,
+                               int originX, int originY, int step) {
+            int length = 0;
+            for (int cell = goal; from[cell] != cell; cell = from[cell]) {
+                length++;
+            }
+            pathX = new int[length];
+            pathY = new int[length];
+            for (int cell = goal, i = length - 1; from[cell] != cell; cell = from[cell], i--) {
+                pathX[i] = originX + cell % columns * step;
+                pathY[i] = originY + cell / columns * step;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Main Method
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs headless courier sessions and prints their totals.
+     *
+     * Session seeds are drawn from a base seed, 0 unless given with
+     * {@code --seed <seed>}, and printed, so any session can be replayed
+     * in the game with the same seed.
+     *
+     * With {@code --replay <file>}, plays that recording instead.
+     *
+     * @param args optional: sessions, simulated seconds per session, shelves, speed,
+     *             and {@code --seed <seed>} anywhere; or {@code --replay <file>}
+     * @throws IOException if the replay file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("--replay")) {
+            Replay replay = Replay.read(Paths.get(args[1]));
+            long start = System.nanoTime();
+            Result result = replay(replay);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.println("Replay (seed " + SessionSeed.format(replay.getSeed()) + ")"
+                + ": delivered " + result.snacksDelivered
+                + ", best attempt " + result.bestAttempt
+                + ", caught by librarian " + result.caughtByLibrarian
+                + ", by bookshelf " + result.caughtByBookshelf);
+            System.out.printf("Replayed %d ticks in %.3f s (%.0f ns per tick)%n",
+                result.ticks, elapsed, elapsed * 1e9 / Math.max(1, result.ticks));
+            return;
+        }
+
+        Long baseSeed = SessionSeed.fromArgs(args);
+        SplittableRandom seeds = new SplittableRandom(baseSeed != null ? baseSeed : 0);
+        args = SessionSeed.withoutSeed(args);
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        int shelves = args.length > 2 ? Integer.parseInt(args[2]) : SettingsScreen.getBookshelfCount();
+        int speed = args.length > 3 ? Integer.parseInt(args[3]) : Player.getSpeed();
+        long ticks = (long) seconds * GameLoop.TICKS_PER_SECOND;
+
+        long start = System.nanoTime();
+        long[] sessionSeeds = new long[sessions];
+        for (int session = 0; session < sessions; session++) {
+            sessionSeeds[session] = seeds.nextLong();
+        }
+        GameWorld[] worlds = LevelGenerator.generateBatch(sessionSeeds, shelves, speed, WIDTH, HEIGHT);
+        for (int session = 0; session < sessions; session++) {
+            GameWorld world = worlds[session];
+            Result result = run(world, courier(), ticks);
+            System.out.println("Session " + session
+                + " (seed " + SessionSeed.format(sessionSeeds[session]) + ")"
+                + ": delivered " + result.snacksDelivered
+                + ", best attempt " + result.bestAttempt
+                + ", caught by librarian " + result.caughtByLibrarian
+                + ", by bookshelf " + result.caughtByBookshelf);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        double simulated = (double) sessions * seconds;
+        System.out.printf("Simulated %.0f s in %.2f s (%.0fx real time)%n",
+            simulated, elapsed, simulated / Math.max(elapsed, 1e-9));
+    }
+}
@@ -44,6 +44,7 @@ public class HelpScreen extends JPanel {
                 + "- Move around using the arrow keys or AWSD.\n"
                 + "- Collect snacks at the Snack Station and deliver them to the Desk.\n"
                 + "- Watch the librarian carefully: if she is looking, you cannot move.\n"
+                + "- Bookshelves block her view: behind one you are out of sight.\n"
                 + "- Avoid colliding with bookshelves — the librarian will notice!\n"
                 + "- Adjust the game speed and number of bookshelves in Settings to "
                 + "match your preferred challenge level.\n\n"
@@ -0,0 +1,274 @@
+package snackademy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Leaderboard that keeps its entries ordered as they are inserted.
+ * <p>
+ * Entries are stored in an indexable skip list, ordered by
+ * {@link ScoreEntry#compareTo(ScoreEntry)} (highest score first). Entries with
+ * equal scores keep their insertion order. Every link also stores how many
+ * entries it skips, so positions can be found without walking the whole list:
+ * insertion, lookup by rank and rank-of-score all take O(log n) expected time.
+ */
+public class LeaderboardIndex implements Iterable<ScoreEntry> {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Maximum number of levels of the skip list. */
+    private static final int MAX_LEVEL = 32;
+
+    /** Probability that a node is promoted to the next level. */
+    private static final double PROMOTION = 0.25;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Sentinel node in front of the first entry. */
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+
+    /** Random source for node levels. */
+    private final Random random = new Random();
+
+    /** Number of levels currently in use. */
+    private int level = 1;
+
+    /** Number of entries. */
+    private int size;
+
+    /** Insertion counter, used to keep equal scores in insertion order. */
+    private long sequence;
+
+    // -------------------------------------------------------------------------
+    // Modification
+    // -------------------------------------------------------------------------
+
+    /**
+     * Inserts an entry at its ranked position.
+     *
+     * @param entry the entry to add
+     */
+    public void add(ScoreEntry entry) {
+        Node node = new Node(entry, sequence++, randomLevel());
+
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        // Find the last node before the new entry on every level
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = (i == level - 1) ? 0 : rank[i + 1];
+            while (x.next[i] != null && x.next[i].comesBefore(node)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        if (node.next.length > level) {
+            for (int i = level; i < node.next.length; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = node.next.length;
+        }
+
+        // Link the node in and fix the spans around it
+        for (int i = 0; i < node.next.length; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = node.next.length; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * Inserts all given entries.
+     *
+     * @param entries the entries to add
+     */
+    public void addAll(Collection<ScoreEntry> entries) {
+        for (ScoreEntry entry : entries) {
+            add(entry);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries
+    // -------------------------------------------------------------------------
+
+    /** Returns the number of entries. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns whether the leaderboard has no entries. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the entry at a position in the ranking.
+     *
+     * @param index position starting at 0 for the best score
+     * @return the entry at that position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public ScoreEntry get(int index) {
+        return nodeAt(index).entry;
+    }
+
+    /**
+     * Returns the rank a score has, or would get: one more than the number of
+     * entries with a strictly higher score.
+     *
+     * @param score the score to rank
+     * @return the 1-based rank of the score
+     */
+    public int rankOf(int score) {
+        Node x = head;
+        int higher = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].entry.getScore() > score) {
+                higher += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return higher + 1;
+    }
+
+    /**
+     * Returns the best entries.
+     *
+     * @param count maximum number of entries to return
+     * @return up to count entries, best first
+     */
+    public List<ScoreEntry> topN(int count) {
+        return range(0, count);
+    }
+
+    /**
+     * Returns one page of the ranking.
+     *
+     * @param page page number starting at 0
+     * @param pageSize number of entries per page
+     * @return the entries on that page, best first; empty past the last page
+     */
+    public List<ScoreEntry> page(int page, int pageSize) {
+        return range(page * pageSize, pageSize);
+    }
+
+    /**
+     * Returns consecutive entries of the ranking.
+     *
+     * @param from position of the first entry
+     * @param count maximum number of entries
+     * @return the entries in ranking order
+     */
+    private List<ScoreEntry> range(int from, int count) {
+        List<ScoreEntry> result = new ArrayList<>();
+        if (from < 0 || from >= size || count <= 0) {
+            return result;
+        }
+        Node x = nodeAt(from);
+        while (x != null && result.size() < count) {
+            result.add(x.entry);
+            x = x.next[0];
+        }
+        return result;
+    }
+
+    /** Returns an iterator over all entries, best first. */
+    @Override
+    public Iterator<ScoreEntry> iterator() {
+        return new Iterator<ScoreEntry>() {
+            private Node next = head.next[0];
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ScoreEntry next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ScoreEntry entry = next.entry;
+                next = next.next[0];
+                return entry;
+            }
+        };
+    }
+
+    // -------------------------------------------------------------------------
+    // Skip List Internals
+    // -------------------------------------------------------------------------
+
+    /** Finds the node at a position by following the link spans. */
+    private Node nodeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        Node x = head;
+        int traversed = -1; // The head sits before position 0
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= index) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return x;
+    }
+
+    /** Picks a level for a new node. */
+    private int randomLevel() {
+        int newLevel = 1;
+        while (newLevel < MAX_LEVEL && random.nextDouble() < PROMOTION) {
+            newLevel++;
+        }
+        return newLevel;
+    }
+
+    /** A node of the skip list. */
+    private static final class Node {
+
+        /** The stored entry; null for the head. */
+        final ScoreEntry entry;
+
+        /** Insertion number, breaks ties between equal scores. */
+        final long sequence;
+
+        /** Next node on every level of this node. */
+        final Node[] next;
+
+        /** Number of positions each link moves forward. */
+        final int[] span;
+
+        Node(ScoreEntry entry, long sequence, int levels) {
+            this.entry = entry;
+            this.sequence = sequence;
+            this.next = new Node[levels];
+            this.span = new int[levels];
+        }
+
+        /** Returns whether this node is ranked before the other node. */
+        boolean comesBefore(Node other) {
+            int order = entry.compareTo(other.entry);
+            return order < 0 || (order == 0 && sequence < other.sequence);
+        }
+    }
+}
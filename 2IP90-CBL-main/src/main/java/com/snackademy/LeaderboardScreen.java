@@ -1,15 +1,59 @@
 package snackademy;
 
 import java.awt.*;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Locale;
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 
 /**
  * Screen to display the leaderboard, showing the number of snacks delivered by players.
+ * <p>
+ * The scores are shown in a table over a lazy model: only the rows of the
+ * current page are looked up in the {@link LeaderboardIndex}, and the table
+ * only renders the rows that are visible. Opening the screen therefore costs
+ * the same for ten scores or ten million. Players can page through the
+ * ranking and search it by player name.
  */
 public class LeaderboardScreen extends JPanel {
 
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Number of rows per page. */
+    private static final int PAGE_SIZE = 100;
+
+    /** Background color of the screen (red). */
+    private static final Color BACKGROUND_COLOR = new Color(200, 0, 0);
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** The scores shown on this screen. */
+    private final LeaderboardIndex leaderboard;
+
+    /** Lazy table model for the current page. */
+    private final ScoreTableModel model = new ScoreTableModel();
+
+    /** Label showing the current page. */
+    private final JLabel pageLabel = new JLabel("", SwingConstants.CENTER);
+
+    /** Buttons to move between pages. */
+    private final JButton previousButton = new JButton("<");
+    private final JButton nextButton = new JButton(">");
+
+    /** Positions in the ranking that match the search, or null when not searching. */
+    private int[] matches;
+
+    /** Number of valid positions in matches. */
+    private int matchCount;
+
+    /** Current page number, starting at 0. */
+    private int page;
+
     // -------------------------------------------------------------------------
     // Constructor
     // -------------------------------------------------------------------------
@@ -18,11 +62,13 @@ public class LeaderboardScreen extends JPanel {
      * Constructs a LeaderboardScreen.
      *
      * @param frame the parent GameFrame used to return to the start menu
-     * @param leaderboard the list of scores to display (snacks delivered)
+     * @param leaderboard the ranked scores to display (snacks delivered)
      */
-    public LeaderboardScreen(GameFrame frame, List<Integer> leaderboard) {
-        setLayout(new BorderLayout());
-        setBackground(new Color(200, 0, 0)); // red background
+    public LeaderboardScreen(GameFrame frame, LeaderboardIndex leaderboard) {
+        this.leaderboard = leaderboard;
+
+        setLayout(new BorderLayout(10, 10));
+        setBackground(BACKGROUND_COLOR);
 
         // Title label
         JLabel title = new JLabel("Leaderboard", SwingConstants.CENTER);
@@ -30,43 +76,184 @@ public class LeaderboardScreen extends JPanel {
         title.setForeground(Color.YELLOW);
         add(title, BorderLayout.NORTH);
 
-        // Scores panel
-        JPanel scoresPanel = new JPanel();
-        scoresPanel.setBackground(new Color(200, 0, 0));
-        scoresPanel.setLayout(new GridLayout(
-            Math.max(leaderboard.size(), 1), 1, 10, 10
-        ));
-
-        // Display message if leaderboard is empty
+        // Display message if leaderboard is empty, otherwise the table
         if (leaderboard.isEmpty()) {
             JLabel emptyLabel = new JLabel("No saved progress yet!", SwingConstants.CENTER);
             emptyLabel.setFont(new Font("Arial", Font.BOLD, 24));
             emptyLabel.setForeground(Color.YELLOW);
-            scoresPanel.add(emptyLabel);
+            add(emptyLabel, BorderLayout.CENTER);
         } else {
-            // Sort scores in descending order
-            Collections.sort(leaderboard, Collections.reverseOrder());
-            int rank = 1;
-            for (int score : leaderboard) {
-                JLabel scoreLabel = new JLabel(
-                    rank + ". Snacks delivered: " + score, SwingConstants.CENTER
-                );
-                scoreLabel.setFont(new Font("Arial", Font.BOLD, 24));
-                scoreLabel.setForeground(Color.YELLOW);
-                scoresPanel.add(scoreLabel);
-                rank++;
-            }
+            add(createTablePanel(), BorderLayout.CENTER);
         }
 
-        add(scoresPanel, BorderLayout.CENTER);
-
         // Back button
         JButton backButton = new JButton("Back to Menu");
-        backButton.setFont(new Font("Arial", Font.BOLD, 24));
-        backButton.setBackground(Color.YELLOW);
-        backButton.setForeground(Color.RED);
-        backButton.setFocusPainted(false);
+        styleButton(backButton, 24);
         backButton.addActionListener(e -> frame.showStartMenu());
         add(backButton, BorderLayout.SOUTH);
+
+        showPage(0);
+    }
+
+    // -------------------------------------------------------------------------
+    // UI Construction
+    // -------------------------------------------------------------------------
+
+    /** Creates the search bar, the score table and the page controls. */
+    private JPanel createTablePanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(BACKGROUND_COLOR);
+
+        // Search bar
+        JPanel searchPanel = new JPanel();
+        searchPanel.setBackground(BACKGROUND_COLOR);
+        JLabel searchLabel = new JLabel("Search name:");
+        searchLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        searchLabel.setForeground(Color.YELLOW);
+        JTextField searchField = new JTextField(20);
+        searchField.setFont(new Font("Arial", Font.PLAIN, 20));
+        JButton searchButton = new JButton("Search");
+        styleButton(searchButton, 20);
+        searchButton.addActionListener(e -> search(searchField.getText()));
+        searchField.addActionListener(e -> search(searchField.getText()));
+        searchPanel.add(searchLabel);
+        searchPanel.add(searchField);
+        searchPanel.add(searchButton);
+        panel.add(searchPanel, BorderLayout.NORTH);
+
+        // Score table; JTable only renders the rows inside the viewport
+        JTable table = new JTable(model);
+        table.setFont(new Font("Arial", Font.BOLD, 20));
+        table.setRowHeight(32);
+        table.setFillsViewportHeight(true);
+        table.setShowGrid(false);
+        table.setFocusable(false);
+        table.setRowSelectionAllowed(false);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 20));
+        DefaultTableCellRenderer renderer = new DefaultTableCellRenderer();
+        renderer.setHorizontalAlignment(SwingConstants.CENTER);
+        table.setDefaultRenderer(Object.class, renderer);
+        table.setDefaultRenderer(Integer.class, renderer);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Page controls
+        JPanel pagePanel = new JPanel();
+        pagePanel.setBackground(BACKGROUND_COLOR);
+        styleButton(previousButton, 20);
+        styleButton(nextButton, 20);
+        pageLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        pageLabel.setForeground(Color.YELLOW);
+        previousButton.addActionListener(e -> showPage(page - 1));
+        nextButton.addActionListener(e -> showPage(page + 1));
+        pagePanel.add(previousButton);
+        pagePanel.add(pageLabel);
+        pagePanel.add(nextButton);
+        panel.add(pagePanel, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
+    /** Styles a JButton like the other Snackademy buttons. */
+    private void styleButton(JButton button, int fontSize) {
+        button.setFont(new Font("Arial", Font.BOLD, fontSize));
+        button.setBackground(Color.YELLOW);
+        button.setForeground(Color.RED);
+        button.setFocusPainted(false);
+    }
+
+    // -------------------------------------------------------------------------
+    // Paging and Search
+    // -------------------------------------------------------------------------
+
+    /** Returns the number of rows in the current view (all scores or the search result). */
+    private int viewSize() {
+        return matches == null ? leaderboard.size() : matchCount;
+    }
+
+    /**
+     * Shows a page of the current view.
+     *
+     * @param newPage the page number, clamped to the available pages
+     */
+    private void showPage(int newPage) {
+        int pages = Math.max(1, (viewSize() + PAGE_SIZE - 1) / PAGE_SIZE);
+        page = Math.max(0, Math.min(pages - 1, newPage));
+
+        pageLabel.setText("Page " + (page + 1) + " of " + pages);
+        previousButton.setEnabled(page > 0);
+        nextButton.setEnabled(page < pages - 1);
+        model.fireTableDataChanged();
+    }
+
+    /**
+     * Filters the view to entries whose name contains the query, ignoring case.
+     * An empty query shows all scores again.
+     *
+     * @param query the text to search for
+     */
+    private void search(String query) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            matches = null;
+            matchCount = 0;
+        } else {
+            int[] found = new int[16];
+            int count = 0;
+            int position = 0;
+            for (ScoreEntry entry : leaderboard) {
+                if (entry.getName().toLowerCase(Locale.ROOT).contains(needle)) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = position;
+                }
+                position++;
+            }
+            matches = found;
+            matchCount = count;
+        }
+        showPage(0);
+    }
+
+    // -------------------------------------------------------------------------
+    // Table Model
+    // -------------------------------------------------------------------------
+
+    /** Table model that looks up the rows of the current page on demand. */
+    private class ScoreTableModel extends AbstractTableModel {
+
+        private final String[] columns = {"Rank", "Name", "Snacks delivered"};
+
+        @Override
+        public int getRowCount() {
+            return Math.max(0, Math.min(PAGE_SIZE, viewSize() - page * PAGE_SIZE));
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 1 ? String.class : Integer.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            int viewRow = page * PAGE_SIZE + row;
+            int position = matches == null ? viewRow : matches[viewRow];
+            if (column == 0) {
+                return position + 1;
+            }
+            ScoreEntry entry = leaderboard.get(position);
+            return column == 1 ? entry.getName() : entry.getScore();
+        }
     }
 }
@@ -0,0 +1,436 @@
+package snackademy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent leaderboard backed by an append-only binary log of score entries.
+ * <p>
+ * File layout: a 4-byte magic number, followed by records of the form
+ * {@code [int length][payload][int crc32]}, where the payload holds the
+ * player name (modified UTF-8) and the score.
+ * <p>
+ * Appends are written to the file immediately but only forced to disk in
+ * batches: after {@link #SYNC_BATCH_SIZE} records or {@link #SYNC_DELAY_MS}
+ * milliseconds, whichever comes first, and on {@link #close()}. On startup
+ * the log is replayed record by record and damage is detected through the
+ * length and checksum of each record. A torn record left behind by a crash
+ * is cut off; other damaged data is skipped or moved to a side file, never
+ * thrown away.
+ */
+public class LeaderboardStore {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Magic number at the start of the log file ("SNK1"). */
+    private static final int MAGIC = 0x534E4B31;
+
+    /** Largest payload accepted when replaying; anything larger is corruption. */
+    private static final int MAX_PAYLOAD = 1 << 16;
+
+    /** Number of appended records after which the log is forced to disk. */
+    public static final int SYNC_BATCH_SIZE = 32;
+
+    /** Maximum time in milliseconds an appended record waits to be forced to disk. */
+    public static final long SYNC_DELAY_MS = 1000;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Channel the log is appended to. */
+    private final FileChannel channel;
+
+    /** Thread that forces delayed batches to disk. */
+    private final ScheduledExecutorService syncer;
+
+    /** Number of records written but not yet forced to disk. */
+    private int unsynced;
+
+    /** Pending delayed sync, or null if none is scheduled. */
+    private ScheduledFuture<?> pendingSync;
+
+    // -------------------------------------------------------------------------
+    // Opening
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the default log location in the user's home directory.
+     *
+     * @return path of the default leaderboard log
+     */
+    public static Path defaultPath() {
+        return Paths.get(System.getProperty("user.home"), ".snackademy", "leaderboard.log");
+    }
+
+    /**
+     * Opens a leaderboard log, replaying every stored entry into the sink.
+     * <p>
+     * Creates the file if it does not exist. A file without a valid header is
+     * moved aside and a new log is started. Damaged records in the middle of
+     * the log are skipped up to the next intact record. Only a torn final
+     * record is cut off; any other damaged tail is first copied to a side
+     * file.
+     *
+     * @param file the log file
+     * @param sink receives the stored entries in the order they were saved
+     * @return the opened store, ready for appending
+     * @throws IOException if the file cannot be read or created
+     */
+    public static LeaderboardStore open(Path file, Consumer<ScoreEntry> sink) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        FileChannel channel = openChannel(file);
+        try {
+            long size = channel.size();
+            if (size > 0) {
+                LogWindow log = new LogWindow(channel, size);
+                if (log.available(0) < Integer.BYTES || log.getInt(0) != MAGIC) {
+                    // Not a log we can parse: keep it, but out of the way
+                    channel.close();
+                    Path aside = sideFile(file);
+                    Files.move(file, aside);
+                    System.err.println("Leaderboard log " + file
+                        + " has no valid header, moved it to " + aside);
+                    channel = openChannel(file);
+                } else {
+                    long end = replay(log, file, sink);
+                    if (end < size) {
+                        dropTail(channel, log, file, end, size);
+                    }
+                }
+            }
+
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new LeaderboardStore(channel);
+    }
+
+    /** Opens the log file for reading and appending, creating it if needed. */
+    private static FileChannel openChannel(Path file) throws IOException {
+        return FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Streams all intact records of the log into the sink. A damaged record
+     * is skipped by searching for the next offset that holds an intact
+     * record, so one bad byte only loses the records it touches.
+     *
+     * @param log the log, with a valid header
+     * @param file the log file, for messages
+     * @param sink receives the stored entries
+     * @return offset just past the last intact record
+     * @throws IOException if the file cannot be read
+     */
+    private static long replay(LogWindow log, Path file, Consumer<ScoreEntry> sink)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        long pos = Integer.BYTES;
+        long end = pos;
+        while (pos < log.size) {
+            int length = readRecord(log, pos, crc, sink);
+            if (length > 0) {
+                pos += length;
+                end = pos;
+                continue;
+            }
+
+            // Damaged record: look for the next intact one
+            long next = pos + 1;
+            while (next < log.size && (length = readRecord(log, next, crc, sink)) == 0) {
+                next++;
+            }
+            if (next >= log.size) {
+                break; // Nothing intact after it: a damaged tail
+            }
+            System.err.println("Leaderboard log damaged, skipped " + (next - pos)
+                + " bytes at offset " + pos + " in " + file);
+            pos = next + length;
+            end = pos;
+        }
+        return end;
+    }
+
+    /**
+     * Reads the record at an offset and passes it to the sink if it is intact.
+     *
+     * @return the size of the record in bytes, or 0 if there is no intact record
+     */
+    private static int readRecord(LogWindow log, long pos, CRC32 crc, Consumer<ScoreEntry> sink)
+            throws IOException {
+        int available = log.available(pos);
+        if (available < 2 * Integer.BYTES) {
+            return 0;
+        }
+        int length = log.getInt(pos);
+        if (length < Integer.BYTES + 2 || length > MAX_PAYLOAD
+            || length > available - 2 * Integer.BYTES) {
+            return 0; // Corrupt length, or a record cut off by the end of the file
+        }
+
+        int offset = log.offset(pos + Integer.BYTES);
+        crc.reset();
+        crc.update(log.bytes(), offset, length);
+        if ((int) crc.getValue() != log.getInt(pos + Integer.BYTES + length)) {
+            return 0; // Torn or corrupt record
+        }
+
+        ScoreEntry entry;
+        try {
+            entry = decode(log.bytes(), offset, length);
+        } catch (IOException e) {
+            return 0; // Checksum matched but the payload is malformed
+        }
+        sink.accept(entry);
+        return Integer.BYTES + length + Integer.BYTES;
+    }
+
+    /**
+     * Cuts the damaged tail off the log. A torn final record, one that a
+     * crash left incomplete, is simply dropped; anything else is copied to a
+     * side file first.
+     */
+    private static void dropTail(FileChannel channel, LogWindow log, Path file, long end, long size)
+            throws IOException {
+        int available = log.available(end);
+        int length = available < Integer.BYTES ? 0 : log.getInt(end);
+        boolean torn = available < 2 * Integer.BYTES
+            || (length >= Integer.BYTES + 2 && length <= MAX_PAYLOAD
+                && length > available - 2 * Integer.BYTES);
+
+        if (torn) {
+            System.err.println("Leaderboard log has a torn final record, dropping "
+                + (size - end) + " bytes from " + file);
+        } else {
+            Path aside = sideFile(file);
+            try (FileChannel out = FileChannel.open(aside,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long copied = 0;
+                while (copied < size - end) {
+                    copied += channel.transferTo(end + copied, size - end - copied, out);
+                }
+                out.force(true);
+            }
+            System.err.println("Leaderboard log damaged, moved the last " + (size - end)
+                + " bytes of " + file + " to " + aside);
+        }
+        channel.truncate(end);
+        channel.force(true);
+    }
+
+    /**
+     * Returns an unused path next to the log for keeping damaged data.
+     *
+     * @param file the log file
+     * @return {@code <file>.corrupt}, or {@code <file>.corrupt.<n>} if that exists
+     */
+    private static Path sideFile(Path file) {
+        String name = file.getFileName() + ".corrupt";
+        Path aside = file.resolveSibling(name);
+        for (int n = 1; Files.exists(aside); n++) {
+            aside = file.resolveSibling(name + "." + n);
+        }
+        return aside;
+    }
+
+    /**
+     * Constructs a store that appends to an already validated log.
+     *
+     * @param channel channel positioned at the end of the log
+     */
+    private LeaderboardStore(FileChannel channel) {
+        this.channel = channel;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Appending
+    // -------------------------------------------------------------------------
+
+    /**
+     * Appends an entry to the log. The entry is forced to disk with the next
+     * batch.
+     *
+     * @param entry the entry to store
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void append(ScoreEntry entry) throws IOException {
+        byte[] payload = encode(entry);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + payload.length + Integer.BYTES);
+        record.putInt(payload.length).put(payload).putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+
+        unsynced++;
+        if (unsynced >= SYNC_BATCH_SIZE) {
+            sync();
+        } else if (pendingSync == null) {
+            pendingSync = syncer.schedule(this::syncQuietly, SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Forces all appended records to disk.
+     *
+     * @throws IOException if the file cannot be synced
+     */
+    public synchronized void sync() throws IOException {
+        if (pendingSync != null) {
+            pendingSync.cancel(false);
+            pendingSync = null;
+        }
+        if (unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /** Forces the log to disk from the sync thread, reporting failures. */
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.err.println("Failed to sync leaderboard log");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Forces all appended records to disk and closes the log.
+     *
+     * @throws IOException if the file cannot be synced or closed
+     */
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            syncer.shutdownNow();
+            channel.close();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Record Encoding
+    // -------------------------------------------------------------------------
+
+    /** Serializes an entry into a record payload. */
+    private static byte[] encode(ScoreEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(entry.getName());
+        out.writeInt(entry.getScore());
+        return bytes.toByteArray();
+    }
+
+    /** Deserializes an entry from a record payload. */
+    private static ScoreEntry decode(byte[] payload, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(
+            new java.io.ByteArrayInputStream(payload, offset, length)
+        );
+        String name = in.readUTF();
+        int score = in.readInt();
+        return new ScoreEntry(name, score);
+    }
+
+    // -------------------------------------------------------------------------
+    // Reading
+    // -------------------------------------------------------------------------
+
+    /**
+     * Window of the log file held in memory while replaying. It always covers
+     * at least one whole record from the offset asked for, and slides forward
+     * as the replay moves on, so the log is never read into memory at once.
+     */
+    private static final class LogWindow {
+
+        /** Largest record: length, payload and checksum. */
+        private static final int MAX_RECORD = Integer.BYTES + MAX_PAYLOAD + Integer.BYTES;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(2 * MAX_RECORD);
+
+        /** Size of the log file in bytes. */
+        final long size;
+
+        /** File offset of the first byte in the buffer. */
+        private long start;
+
+        LogWindow(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+            buffer.limit(0);
+        }
+
+        /**
+         * Loads the bytes from an offset on and returns how many are in the
+         * window: a whole record's worth, or up to the end of the file.
+         */
+        int available(long pos) throws IOException {
+            long end = start + buffer.limit();
+            if (pos < start || (pos + MAX_RECORD > end && end < size)) {
+                buffer.clear();
+                start = pos;
+                while (buffer.hasRemaining()
+                    && channel.read(buffer, start + buffer.position()) >= 0) {
+                    // Keep reading until the buffer is full or the file ends
+                }
+                buffer.flip();
+            }
+            return (int) Math.max(0, start + buffer.limit() - pos);
+        }
+
+        /** Returns the int at a file offset inside the window. */
+        int getInt(long pos) {
+            return buffer.getInt(offset(pos));
+        }
+
+        /** Returns the index in {@link #bytes()} of a file offset inside the window. */
+        int offset(long pos) {
+            return (int) (pos - start);
+        }
+
+        /** Returns the array backing the window. */
+        byte[] bytes() {
+            return buffer.array();
+        }
+    }
+}
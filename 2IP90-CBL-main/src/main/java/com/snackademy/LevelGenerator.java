@@ -0,0 +1,510 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Places the bookshelves of a level so that the player can always walk from
+ * the snack station to the desk.
+ * <p>
+ * The shelves stand in evenly spaced columns, each at one of a set of
+ * heights, as they always did. The generator fills the columns from left to
+ * right and checks reachability on a navigation grid: a lattice of player
+ * positions {@link #NAV_CELL} pixels apart, aligned with the player's start
+ * on the snack station. A position is free if the player's feet touch no
+ * shelf hitbox there. Two neighbouring free positions are connected, since
+ * the feet sliding between them sweep no area outside the two hitboxes, so a
+ * breadth-first search over free positions finds a path the player can
+ * really walk.
+ * <p>
+ * A shelf that would cut every path is repaired by trying the remaining
+ * heights for its column. If no height keeps a path open, the layout is
+ * rejected and drawn again, up to {@link #MAX_ATTEMPTS} times.
+ * <p>
+ * The generator keeps one path to the goal. A shelf that does not cover it
+ * needs no search at all. A shelf that does only needs a detour: the search
+ * starts at the last free cell before the covered stretch and stops at the
+ * first cell of the path behind it, so it usually visits a few hundred cells
+ * around the shelf instead of the whole level.
+ * <p>
+ * A generator holds the grid for one level size and is not thread-safe;
+ * {@link #generateBatch(long[], int, int, int, int)} lays out many levels in
+ * parallel with a generator per level.
+ */
+public class LevelGenerator {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Distance between neighbouring positions of the navigation grid, in pixels. */
+    public static final int NAV_CELL = 8;
+
+    /** Number of layouts drawn before the generator gives up on a walkable one. */
+    public static final int MAX_ATTEMPTS = 32;
+
+    /** Distance of the shelf columns from the left and right edge, in pixels. */
+    private static final int MARGIN_X = 150;
+
+    /** Bounding box of the shelf hitbox, relative to the top-left corner of the shelf. */
+    private static final int HITBOX_MIN_X = Arrays.stream(ShelfModel.X_OFFSETS).min().getAsInt();
+    private static final int HITBOX_MAX_X = Arrays.stream(ShelfModel.X_OFFSETS).max().getAsInt();
+    private static final int HITBOX_MIN_Y = Arrays.stream(ShelfModel.Y_OFFSETS).min().getAsInt();
+    private static final int HITBOX_MAX_Y = Arrays.stream(ShelfModel.Y_OFFSETS).max().getAsInt();
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Size of the level in pixels. */
+    private final int width;
+    private final int height;
+
+    /** Player position of the first grid cell. */
+    private final int originX;
+    private final int originY;
+
+    /** Number of grid cells along each axis; 0 if the player does not fit. */
+    private final int columns;
+    private final int rows;
+
+    /** Cell of the player's start, or -1 if it is outside the grid. */
+    private final int startCell;
+
+    /** Cells from which the player touches the desk, inclusive ranges. */
+    private final int goalMinColumn;
+    private final int goalMaxColumn;
+    private final int goalMinRow;
+    private final int goalMaxRow;
+
+    /** Number of shelves that block each cell. */
+    private final int[] blocked;
+
+    /** Cell offsets of the four neighbours: left, right, up and down. */
+    private final int[] steps;
+
+    /**
+     * Search state: visit stamps, the step (index into {@link #steps}) each
+     * cell was reached by, and the queue.
+     */
+    private final int[] visited;
+    private final byte[] from;
+    private final int[] queue;
+    private int visitStamp;
+
+    /** The current path from the start to a goal cell, and a scratch array for the next one. */
+    private int[] pathCells;
+    private int[] nextPath;
+    private int pathLength;
+
+    /** Index on the current path plus one for every cell, 0 for cells off the path. */
+    private final int[] pathIndex;
+
+    /** First and last index of the path cells covered by the last shelf added. */
+    private int coveredFirst;
+    private int coveredLast;
+
+    /** Scratch hitbox of the player's feet. */
+    private final Rectangle feet = new Rectangle();
+
+    /** Number of layouts drawn by the last {@link #generate} call. */
+    private int attempts;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs a generator for one level.
+     *
+     * @param width width of the level in pixels
+     * @param height height of the level in pixels
+     * @param startX x coordinate the player starts at
+     * @param startY y coordinate the player starts at
+     * @param goal the area the player has to reach, the desk
+     */
+    public LevelGenerator(int width, int height, int startX, int startY, Rectangle goal) {
+        this.width = width;
+        this.height = height;
+        originX = Math.floorMod(startX, NAV_CELL);
+        originY = Math.floorMod(startY, NAV_CELL);
+
+        // The whole sprite stays inside the level
+        int maxX = width - GameWorld.PLAYER_SIZE;
+        int maxY = height - GameWorld.PLAYER_SIZE;
+        columns = maxX >= originX ? (maxX - originX) / NAV_CELL + 1 : 0;
+        rows = maxY >= originY ? (maxY - originY) / NAV_CELL + 1 : 0;
+
+        int startColumn = Math.floorDiv(startX - originX, NAV_CELL);
+        int startRow = Math.floorDiv(startY - originY, NAV_CELL);
+        startCell = startColumn >= 0 && startColumn < columns && startRow >= 0 && startRow < rows
+            ? startRow * columns + startColumn : -1;
+
+        // The sprite overlaps the goal where goal.x - size < x < goal.x + goal.width
+        goalMinColumn = Math.max(0, firstCellAbove(goal.x - GameWorld.PLAYER_SIZE, originX));
+        goalMaxColumn = Math.min(columns - 1, lastCellBelow(goal.x + goal.width, originX));
+        goalMinRow = Math.max(0, firstCellAbove(goal.y - GameWorld.PLAYER_SIZE, originY));
+        goalMaxRow = Math.min(rows - 1, lastCellBelow(goal.y + goal.height, originY));
+
+        steps = new int[] {-1, 1, -columns, columns};
+        int cells = columns * rows;
+        blocked = new int[cells];
+        visited = new int[cells];
+        from = new byte[cells];
+        queue = new int[cells];
+        pathIndex = new int[cells];
+        pathCells = new int[columns + rows + 1];
+        nextPath = new int[pathCells.length];
+    }
+
+    // -------------------------------------------------------------------------
+    // Generation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Places the bookshelves. The same shelves and random state always give
+     * the same layout.
+     *
+     * @param shelves the shelves to move; their count sets the number of columns
+     * @param shelfWidth width of a bookshelf image
+     * @param shelfHeight height of a bookshelf image
+     * @param random source of the shelf order
+     * @return true if the player can walk from the start to the goal
+     */
+    public boolean generate(List<ShelfModel> shelves, int shelfWidth, int shelfHeight,
+                            SplittableRandom random) {
+        int n = shelves.size();
+        int spacing = (width - 2 * MARGIN_X) / (n + 1);
+        int marginY = shelfHeight / 14;
+        int[] columnX = new int[n];
+        int[] rowY = new int[n];
+        for (int i = 0; i < n; i++) {
+            columnX[i] = MARGIN_X + spacing * (i + 1) - shelfWidth / 2;
+            rowY[i] = marginY + (height - shelfHeight) * (i + 1) / (n + 1);
+        }
+
+        attempts = 0;
+        boolean open = startCell >= 0
+            && goalMinColumn <= goalMaxColumn && goalMinRow <= goalMaxRow;
+        do {
+            attempts++;
+            shuffle(rowY, random);
+            if (!open) {
+                // No path even without shelves: nothing to repair
+                place(shelves, columnX, rowY, 0, shelfWidth, shelfHeight);
+                return false;
+            }
+            if (fill(shelves, columnX, rowY, shelfWidth, shelfHeight)) {
+                return true;
+            }
+        } while (attempts < MAX_ATTEMPTS);
+        return false;
+    }
+
+    /**
+     * Fills the columns from left to right, repairing every shelf that would
+     * close every path by giving it another of the remaining heights.
+     *
+     * @return true if every shelf was placed with a path left open
+     */
+    private boolean fill(List<ShelfModel> shelves, int[] columnX, int[] rowY,
+                         int shelfWidth, int shelfHeight) {
+        Arrays.fill(blocked, 0);
+        straightPath();
+        for (int i = 0; i < shelves.size(); i++) {
+            ShelfModel shelf = shelves.get(i);
+            boolean placed = false;
+            for (int k = i; k < rowY.length && !placed; k++) {
+                shelf.setBounds(columnX[i], rowY[k], shelfWidth, shelfHeight);
+                if (block(shelf, 1) && !detour()) {
+                    block(shelf, -1);
+                } else {
+                    swap(rowY, i, k);
+                    placed = true;
+                }
+            }
+            if (!placed) {
+                place(shelves, columnX, rowY, i, shelfWidth, shelfHeight);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Puts the shelves from index {@code first} on at their heights without checks. */
+    private static void place(List<ShelfModel> shelves, int[] columnX, int[] rowY, int first,
+                              int shelfWidth, int shelfHeight) {
+        for (int i = first; i < shelves.size(); i++) {
+            shelves.get(i).setBounds(columnX[i], rowY[i], shelfWidth, shelfHeight);
+        }
+    }
+
+    /** Shuffles the heights (Fisher-Yates). */
+    private static void shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            swap(values, i, random.nextInt(i + 1));
+        }
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int t = values[i];
+        values[i] = values[j];
+        values[j] = t;
+    }
+
+    // -------------------------------------------------------------------------
+    // Navigation Grid
+    // -------------------------------------------------------------------------
+
+    /**
+     * Adds a shelf to or removes it from the blocked cells: every cell at
+     * which the player's feet would overlap its hitbox.
+     *
+     * @param shelf the shelf at its position
+     * @param delta 1 to add the shelf, -1 to remove it
+     * @return true if one of the cells lies on the current path
+     */
+    private boolean block(ShelfModel shelf, int delta) {
+        Rectangle bounds = shelf.getBounds();
+        int left = bounds.x + HITBOX_MIN_X;
+        int right = bounds.x + HITBOX_MAX_X;
+        int top = bounds.y + HITBOX_MIN_Y;
+        int bottom = bounds.y + HITBOX_MAX_Y;
+
+        // Only positions where the feet overlap the hitbox bounding box
+        int feetOffset = GameWorld.FEET_OFFSET;
+        int minColumn = Math.max(0, firstCellAbove(left - GameWorld.PLAYER_SIZE, originX));
+        int maxColumn = Math.min(columns - 1, lastCellBelow(right, originX));
+        int minRow = Math.max(0,
+            firstCellAbove(top - GameWorld.FEET_HEIGHT - feetOffset, originY));
+        int maxRow = Math.min(rows - 1, lastCellBelow(bottom - feetOffset, originY));
+
+        boolean covered = false;
+        coveredFirst = Integer.MAX_VALUE;
+        coveredLast = -1;
+        for (int row = minRow; row <= maxRow; row++) {
+            int y = originY + row * NAV_CELL + feetOffset;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                feet.setBounds(originX + column * NAV_CELL, y,
+                    GameWorld.PLAYER_SIZE, GameWorld.FEET_HEIGHT);
+                if (shelf.intersects(feet)) {
+                    int cell = row * columns + column;
+                    blocked[cell] += delta;
+                    int index = pathIndex[cell] - 1;
+                    if (index >= 0) {
+                        covered = true;
+                        coveredFirst = Math.min(coveredFirst, index);
+                        coveredLast = Math.max(coveredLast, index);
+                    }
+                }
+            }
+        }
+        return covered;
+    }
+
+    /**
+     * Makes the shortest path through the empty level the current path:
+     * along the row of the start, then along the column of the goal.
+     */
+    private void straightPath() {
+        int column = startCell % columns;
+        int row = startCell / columns;
+        int goalColumn = Math.max(goalMinColumn, Math.min(goalMaxColumn, column));
+        int goalRow = Math.max(goalMinRow, Math.min(goalMaxRow, row));
+        int length = 0;
+        nextPath[length++] = startCell;
+        while (column != goalColumn) {
+            column += Integer.signum(goalColumn - column);
+            nextPath[length++] = row * columns + column;
+        }
+        while (row != goalRow) {
+            row += Integer.signum(goalRow - row);
+            nextPath[length++] = row * columns + column;
+        }
+        setPath(length);
+    }
+
+    /**
+     * Finds a way around the stretch of the current path that the last shelf
+     * covered, and splices it into the path.
+     *
+     * @return true if the goal can still be reached
+     */
+    private boolean detour() {
+        if (coveredFirst == 0) {
+            return false; // The start itself is covered
+        }
+        int entry = pathCells[coveredFirst - 1];
+
+        // The cells before the covered stretch stay; the detour must not loop back over them
+        int stamp = nextVisitStamp();
+        for (int i = 0; i < coveredFirst; i++) {
+            visited[pathCells[i]] = stamp;
+        }
+        int end = explore(entry, stamp, coveredLast);
+        if (end < 0) {
+            return false;
+        }
+
+        // Keep the cells before and behind the detour
+        ensureNextPath(coveredFirst);
+        System.arraycopy(pathCells, 0, nextPath, 0, coveredFirst);
+        int length = trace(end, entry, coveredFirst);
+        int rest = pathIndex[end]; // Index of the cell after the end
+        if (rest > 0) {
+            ensureNextPath(length + pathLength - rest);
+            System.arraycopy(pathCells, rest, nextPath, length, pathLength - rest);
+            length += pathLength - rest;
+        }
+        setPath(length);
+        return true;
+    }
+
+    /**
+     * Runs a breadth-first search over the free cells from a visited cell.
+     * It stops at a goal cell or at a cell of the current path with an index
+     * above {@code after}, which must not be negative.
+     *
+     * @return the cell the search stopped at, or -1 if there is none
+     */
+    private int explore(int first, int stamp, int after) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = first;
+        while (head < tail) {
+            int cell = queue[head++];
+            int column = cell % columns;
+            int row = cell / columns;
+            if (column >= goalMinColumn && column <= goalMaxColumn
+                && row >= goalMinRow && row <= goalMaxRow
+                || pathIndex[cell] - 1 > after) {
+                return cell;
+            }
+            if (column > 0) {
+                tail = visit(cell, 0, stamp, tail);
+            }
+            if (column < columns - 1) {
+                tail = visit(cell, 1, stamp, tail);
+            }
+            if (row > 0) {
+                tail = visit(cell, 2, stamp, tail);
+            }
+            if (row < rows - 1) {
+                tail = visit(cell, 3, stamp, tail);
+            }
+        }
+        return -1;
+    }
+
+    /** Queues a free neighbour that was not visited yet and returns the new queue end. */
+    private int visit(int previous, int step, int stamp, int tail) {
+        int cell = previous + steps[step];
+        if (visited[cell] != stamp && blocked[cell] == 0) {
+            visited[cell] = stamp;
+            from[cell] = (byte) step;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+
+    /** Returns a new stamp for the visited cells. */
+    private int nextVisitStamp() {
+        if (visitStamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            visitStamp = 0;
+        }
+        return ++visitStamp;
+    }
+
+    /**
+     * Writes the cells the last search went through to reach {@code end}
+     * into the next path, from the one after {@code first} up to {@code end}.
+     *
+     * @return the length of the next path
+     */
+    private int trace(int end, int first, int length) {
+        int count = 0;
+        for (int cell = end; cell != first; cell -= steps[from[cell]]) {
+            queue[count++] = cell; // The queue is free once the search is over
+        }
+        ensureNextPath(length + count);
+        for (int i = count - 1; i >= 0; i--) {
+            nextPath[length++] = queue[i];
+        }
+        return length;
+    }
+
+    /** Grows the next path to hold at least {@code capacity} cells, keeping its contents. */
+    private void ensureNextPath(int capacity) {
+        if (nextPath.length < capacity) {
+            nextPath = Arrays.copyOf(nextPath, Math.max(capacity, nextPath.length * 2));
+        }
+    }
+
+    /** Makes the next path the current one. */
+    private void setPath(int length) {
+        for (int i = 0; i < pathLength; i++) {
+            pathIndex[pathCells[i]] = 0;
+        }
+        for (int i = 0; i < length; i++) {
+            pathIndex[nextPath[i]] = i + 1;
+        }
+        int[] previous = pathCells;
+        pathCells = nextPath;
+        nextPath = previous;
+        pathLength = length;
+    }
+
+    /** Returns the first cell whose position is greater than {@code position}. */
+    private static int firstCellAbove(int position, int origin) {
+        return Math.floorDiv(position - origin, NAV_CELL) + 1;
+    }
+
+    /** Returns the last cell whose position is less than {@code position}. */
+    private static int lastCellBelow(int position, int origin) {
+        return Math.floorDiv(position - 1 - origin, NAV_CELL);
+    }
+
+    // -------------------------------------------------------------------------
+    // Batch Generation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Lays out the levels of many sessions in parallel on all cores. Each
+     * level is exactly the one a session with that seed plays.
+     *
+     * @param seeds the session seeds
+     * @param shelfCount number of bookshelves per level
+     * @param speed player speed of the sessions
+     * @param width width of the levels in pixels
+     * @param height height of the levels in pixels
+     * @return the laid out sessions, in the order of the seeds
+     */
+    public static GameWorld[] generateBatch(long[] seeds, int shelfCount, int speed,
+                                            int width, int height) {
+        GameWorld[] worlds = new GameWorld[seeds.length];
+        IntStream.range(0, seeds.length).parallel().forEach(i -> {
+            GameWorld world = new GameWorld(shelfCount, speed, seeds[i]);
+            world.layout(width, height);
+            worlds[i] = world;
+        });
+        return worlds;
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /** Returns the number of layouts drawn by the last generation, at least 1. */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /** Returns the number of cells in the navigation grid. */
+    public int getCellCount() {
+        return columns * rows;
+    }
+}
@@ -0,0 +1,274 @@
+package snackademy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Headless model of the librarian's attention cycle.
+ * <p>
+ * The librarian alternates between INATTENTIVE → TRANSITION → ATTENTIVE →
+ * INATTENTIVE. How long each state lasts is drawn at random for every cycle.
+ * Time is passed in by the caller, so the cycle follows simulation time and
+ * can run faster than real time. The Swing {@link Librarian} only shows the
+ * current state.
+ * <p>
+ * The model is deadline-driven: every transition sets the absolute time of
+ * the next one, so an update between transitions is a single comparison and
+ * callers can sleep until {@link #getNextTransitionMillis()}.
+ * <p>
+ * The state is published as an immutable {@link Snapshot}, so any thread can
+ * read a consistent state and deadline without locking, and transitions are
+ * reported to {@link TransitionListener}s. The cycle itself is advanced by
+ * one thread only: the one that owns the simulation.
+ */
+public class LibrarianModel {
+
+    /** The possible attention states of the librarian. */
+    public enum State {
+        INATTENTIVE,
+        TRANSITION,
+        ATTENTIVE
+    }
+
+    /** Immutable view of the librarian at one moment. */
+    public static final class Snapshot {
+
+        /** The attention state. */
+        public final State state;
+
+        /** Simulation time in milliseconds at which the state started. */
+        public final long since;
+
+        /** Simulation time in milliseconds at which the state ends. */
+        public final long until;
+
+        /** Number of transitions before this state, starting at 0. */
+        public final long sequence;
+
+        Snapshot(State state, long since, long until, long sequence) {
+            this.state = state;
+            this.since = since;
+            this.until = until;
+            this.sequence = sequence;
+        }
+    }
+
+    /** Receives the librarian's state transitions. */
+    public interface TransitionListener {
+
+        /**
+         * Called on the simulation's thread right after a transition.
+         *
+         * @param previous the state that ended
+         * @param current the state that started
+         */
+        void transitioned(Snapshot previous, Snapshot current);
+    }
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Random source for the state durations. */
+    private final SplittableRandom random;
+
+    /** Current state and deadline, replaced as a whole on every transition. */
+    private volatile Snapshot snapshot;
+
+    /** Receivers of the state transitions. */
+    private final List<TransitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Durations in milliseconds of the INATTENTIVE, TRANSITION and ATTENTIVE states. */
+    private int firstMilestone;
+    private int secondMilestone;
+    private int thirdMilestone;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs a librarian that starts INATTENTIVE at time 0.
+     *
+     * @param random random source for the state durations
+     */
+    public LibrarianModel(SplittableRandom random) {
+        this.random = random;
+        randomizeMilestones();
+        snapshot = new Snapshot(State.INATTENTIVE, 0, firstMilestone, 0);
+    }
+
+    // -------------------------------------------------------------------------
+    // State Machine
+    // -------------------------------------------------------------------------
+
+    /**
+     * Advances the attention cycle to the given simulation time.
+     *
+     * @param now simulation time in milliseconds
+     * @return true if the state changed
+     */
+    public boolean update(long now) {
+        if (now < snapshot.until) {
+            return false;
+        }
+
+        switch (snapshot.state) {
+            case INATTENTIVE:
+                transitionTo(State.TRANSITION, now, now + secondMilestone);
+                break;
+            case TRANSITION:
+                transitionTo(State.ATTENTIVE, now, now + thirdMilestone);
+                break;
+            default:
+                randomizeMilestones();
+                transitionTo(State.INATTENTIVE, now, now + firstMilestone);
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Publishes the next state with the deadline of the next transition and
+     * reports the transition.
+     *
+     * @param nextState new state
+     * @param now simulation time in milliseconds at which the new state starts
+     * @param deadline simulation time in milliseconds at which the new state ends
+     */
+    private void transitionTo(State nextState, long now, long deadline) {
+        Snapshot previous = snapshot;
+        Snapshot current = new Snapshot(nextState, now, deadline, previous.sequence + 1);
+        snapshot = current;
+        for (TransitionListener listener : listeners) {
+            listener.transitioned(previous, current);
+        }
+    }
+
+    /** Randomizes milestone durations for the next cycle. */
+    private void randomizeMilestones() {
+        firstMilestone = drawDuration(State.INATTENTIVE, random);
+        secondMilestone = drawDuration(State.TRANSITION, random);
+        thirdMilestone = drawDuration(State.ATTENTIVE, random);
+    }
+
+    /**
+     * Draws how long a state lasts. Also used for the librarians in an
+     * {@link EntityRegistry}, so all librarians follow the same rhythm.
+     *
+     * @param state the state
+     * @param random the random source
+     * @return the duration in milliseconds
+     */
+    static int drawDuration(State state, SplittableRandom random) {
+        switch (state) {
+            case INATTENTIVE:
+                return random.nextInt(10000) + 6000;
+            case TRANSITION:
+                return random.nextInt(1500) + 500;
+            default:
+                return random.nextInt(4000) + 4000;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Listeners
+    // -------------------------------------------------------------------------
+
+    /**
+     * Registers a receiver of the state transitions.
+     *
+     * @param listener the listener to add
+     */
+    public void addTransitionListener(TransitionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a receiver of the state transitions.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeTransitionListener(TransitionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Forwards transitions to the Event Dispatch Thread in batches.
+     * <p>
+     * Transitions are queued on the simulation's thread, and one task on the
+     * EDT hands over everything queued since the previous batch. Transitions
+     * that happen close together, for example when idle ticks are skipped,
+     * therefore cost one EDT event instead of one each.
+     */
+    public static final class EdtDispatcher implements TransitionListener {
+
+        /** Transitions not yet handed to the EDT. */
+        private final ConcurrentLinkedQueue<Snapshot> pending = new ConcurrentLinkedQueue<>();
+
+        /** Whether a batch task is waiting on the EDT. */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** Receives the batches on the EDT, oldest transition first. */
+        private final Consumer<List<Snapshot>> receiver;
+
+        /**
+         * Constructs a dispatcher.
+         *
+         * @param receiver receives each batch of new states on the EDT
+         */
+        public EdtDispatcher(Consumer<List<Snapshot>> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void transitioned(Snapshot previous, Snapshot current) {
+            pending.add(current);
+            if (scheduled.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(this::deliver);
+            }
+        }
+
+        /** Hands all queued transitions to the receiver. */
+        private void deliver() {
+            scheduled.set(false);
+            List<Snapshot> batch = new ArrayList<>();
+            for (Snapshot next = pending.poll(); next != null; next = pending.poll()) {
+                batch.add(next);
+            }
+            if (!batch.isEmpty()) {
+                receiver.accept(batch);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /** Returns the current state and deadline; safe to call from any thread. */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Returns the current attention state. */
+    public State getState() {
+        return snapshot.state;
+    }
+
+    /** Returns the simulation time in milliseconds at which the state changes next. */
+    public long getNextTransitionMillis() {
+        return snapshot.until;
+    }
+
+    /** Returns true if the librarian is currently attentive. */
+    public boolean isAttentive() {
+        return snapshot.state == State.ATTENTIVE;
+    }
+}
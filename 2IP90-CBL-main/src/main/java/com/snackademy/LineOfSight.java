@@ -0,0 +1,128 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * Decides whether a watcher can see the player past the bookshelves.
+ * <p>
+ * A watcher looks in one direction and sees everything inside a view cone of
+ * {@link #VIEW_ANGLE_DEGREES} around it. A target inside the cone is seen
+ * when a ray from the watcher's eye reaches one of a few points along the
+ * target's feet without crossing a bookshelf hitbox. Rays only test the
+ * shelves in the {@link BookshelfGrid} cells they pass through.
+ * <p>
+ * Eyes and targets are on the floor, at the feet, because the shelf hitboxes
+ * are the footprints of the shelves.
+ */
+public class LineOfSight {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Full opening angle of a view cone in degrees, less than 180. */
+    public static final double VIEW_ANGLE_DEGREES = 150;
+
+    /** Cosine of half the view angle: the smallest cosine between facing and target. */
+    private static final double COS_HALF_ANGLE =
+        Math.cos(Math.toRadians(VIEW_ANGLE_DEGREES / 2));
+
+    /** Number of points along the target's feet that a ray is cast to. */
+    private static final int TARGET_POINTS = 3;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** The bookshelves that block the view. */
+    private final List<ShelfModel> shelves;
+
+    /** Spatial index over {@link #shelves}. */
+    private final BookshelfGrid grid;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs the line of sight over a set of bookshelves.
+     *
+     * @param shelves the bookshelves that block the view
+     * @param grid spatial index built over the same list of shelves
+     */
+    public LineOfSight(List<ShelfModel> shelves, BookshelfGrid grid) {
+        this.shelves = shelves;
+        this.grid = grid;
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries
+    // -------------------------------------------------------------------------
+
+    /**
+     * Checks whether a watcher sees any part of a target's feet.
+     *
+     * @param eyeX x coordinate of the watcher's eye
+     * @param eyeY y coordinate of the watcher's eye
+     * @param facingX x component of the unit vector the watcher looks along
+     * @param facingY y component of the unit vector the watcher looks along
+     * @param target the target's feet hitbox
+     * @return true if a point of the target is in the cone and not hidden
+     */
+    public boolean canSee(double eyeX, double eyeY, double facingX, double facingY,
+                          Rectangle target) {
+        double y = target.y + target.height / 2.0;
+        for (int i = 1; i <= TARGET_POINTS; i++) {
+            double x = target.x + target.width * i / (TARGET_POINTS + 1.0);
+            if (inCone(eyeX, eyeY, facingX, facingY, x, y)
+                && isClear(eyeX, eyeY, x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a point lies inside a view cone.
+     *
+     * @param eyeX x coordinate of the cone's apex
+     * @param eyeY y coordinate of the cone's apex
+     * @param facingX x component of the cone's unit direction
+     * @param facingY y component of the cone's unit direction
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @return true if the point is within half the view angle of the direction
+     */
+    public static boolean inCone(double eyeX, double eyeY, double facingX, double facingY,
+                                 double x, double y) {
+        double dx = x - eyeX;
+        double dy = y - eyeY;
+        double dot = dx * facingX + dy * facingY;
+        if (dot <= 0) {
+            return dx == 0 && dy == 0;
+        }
+        // Compare squares to avoid the square root; both sides are positive
+        return dot * dot >= COS_HALF_ANGLE * COS_HALF_ANGLE * (dx * dx + dy * dy);
+    }
+
+    /**
+     * Checks whether the straight line between two points crosses no
+     * bookshelf hitbox. Touching the edge of a hitbox does not block.
+     *
+     * @param x0 x coordinate of the start
+     * @param y0 y coordinate of the start
+     * @param x1 x coordinate of the end
+     * @param y1 y coordinate of the end
+     * @return true if no bookshelf is in the way
+     */
+    public boolean isClear(double x0, double y0, double x1, double y1) {
+        int candidates = grid.queryLine(x0, y0, x1, y1);
+        for (int i = 0; i < candidates; i++) {
+            if (shelves.get(grid.getResult(i)).intersectsSegment(x0, y0, x1, y1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package snackademy;
+
+import java.awt.*;
+import javax.swing.*;
+
+/**
+ * Loading screen shown while the game images are decoded at startup.
+ * <p>
+ * Displays the game title and a progress bar that is advanced by the
+ * {@link AssetManager} as images finish loading.
+ */
+public class LoadingScreen extends JPanel {
+
+    /** Progress bar showing the number of decoded images. */
+    private final JProgressBar progressBar;
+
+    /**
+     * Constructs a LoadingScreen.
+     *
+     * @param total the total number of assets that will be loaded
+     */
+    public LoadingScreen(int total) {
+        setLayout(new GridBagLayout());
+        setBackground(new Color(200, 0, 0)); // match main menu background
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(15, 15, 15, 15);
+        gbc.gridx = 0;
+        gbc.anchor = GridBagConstraints.CENTER;
+
+        // Title
+        JLabel title = new JLabel("Snackademy");
+        title.setFont(new Font("Arial", Font.BOLD, 48));
+        title.setForeground(Color.YELLOW);
+        gbc.gridy = 0;
+        add(title, gbc);
+
+        // Loading text
+        JLabel loadingLabel = new JLabel("Loading...", SwingConstants.CENTER);
+        loadingLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        loadingLabel.setForeground(Color.YELLOW);
+        gbc.gridy = 1;
+        add(loadingLabel, gbc);
+
+        // Progress bar
+        progressBar = new JProgressBar(0, total);
+        progressBar.setPreferredSize(new Dimension(400, 30));
+        progressBar.setForeground(Color.YELLOW);
+        progressBar.setStringPainted(true);
+        gbc.gridy = 2;
+        add(progressBar, gbc);
+    }
+
+    /**
+     * Updates the progress bar.
+     *
+     * @param loaded the number of assets loaded so far
+     */
+    public void setProgress(int loaded) {
+        progressBar.setValue(loaded);
+    }
+}
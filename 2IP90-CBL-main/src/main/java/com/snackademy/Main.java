@@ -1,5 +1,6 @@
 package snackademy;
 
+import java.nio.file.Paths;
 import javax.swing.SwingUtilities;
 
 /**
@@ -15,18 +16,34 @@ import javax.swing.SwingUtilities;
  *
  * Class overview:
  * - {@code Main} — launches the game and shows the start menu.
+ * - {@code AssetManager} — decodes all images in parallel at startup and shares them.
+ * - {@code LoadingScreen} — shows the loading progress while the images are decoded.
  * - {@code UILayout} — builds and displays the main game window, positions all objects,
  *   handles resizing, movable text, snack counter, and back button.
- * - {@code GameController} — manages game logic, keyboard input, and connects
- *   the UI to the player and librarian.
- * - {@code Player} — represents the player character, handles position, movement,
- *   and walking animations.
- * - {@code MovingPlayer} — listens for keyboard input and triggers player movement callbacks.
- * - {@code Librarian} — manages the librarian’s state machine, updates icons and behavior.
+ * - {@code GameController} — connects the UI to the simulation, feeds keyboard input
+ *   in and turns simulation events into screens and sounds.
+ * - {@code GameWorld} — headless simulation holding all game rules and positions.
+ * - {@code HeadlessSimulation} — runs sessions without a display for balancing runs.
+ * - {@code SessionSeed} — the seed all randomness of a session is derived from.
+ * - {@code ReplayRecorder} — records a session's input into a compact replay file.
+ * - {@code Replay} — reads a replay file and plays it back tick by tick.
+ * - {@code GameLoop} — runs the game logic at a fixed number of ticks per second.
+ * - {@code Player} — displays the player character and its walking animations.
+ * - {@code MovingPlayer} — tracks the held movement keys and hands them to the simulation.
+ * - {@code Librarian} — shows the librarian’s attention state.
+ * - {@code LibrarianModel} — the librarian’s state machine, driven by simulation time.
  * - {@code Desk} — represents a static desk object with a resizable image.
  * - {@code Snackstation} — represents a static snack station object with a resizable image.
  * - {@code Bookshelf} — represents static bookshelf objects randomly positioned in the game.
- * - {@code DebugOverlayPanel} — optional overlay to display debug information about objects.
+ * - {@code LevelGenerator} — places the bookshelves so the desk can always be reached.
+ * - {@code LineOfSight} — decides whether a librarian sees the player past the bookshelves.
+ * - {@code EntityRegistry} — stores wandering students and extra librarians as arrays.
+ * - {@code EntitySystems} — runs the students and extra librarians every tick.
+ * - {@code DebugOverlayPanel} — optional overlay to display debug information about objects,
+ *   and the performance HUD toggled with F3.
+ * - {@code PerformanceMonitor} — collects the frame, tick and GC metrics shown in the HUD.
+ * - {@code RenderOrder} — keeps the sprites in depth order, moving only the sprite that moved.
+ * - {@code DirtyRegion} — collects the changed areas of a tick so only those are repainted.
  * - {@code CaughtScreen} — displayed when the player is caught by the librarian.
  * - {@code StartMenuScreen} — the main start menu UI with buttons to launch the game,
  *   settings, help, and leaderboard.
@@ -46,13 +63,48 @@ import javax.swing.SwingUtilities;
 public class Main {
 
     /**
-     * Launches the Snackademy game by showing the start menu.
+     * Launches the Snackademy game. The frame shows a loading screen while the
+     * images are decoded and switches to the start menu afterwards.
      * Uses SwingUtilities.invokeLater to ensure GUI creation is on the Event Dispatch Thread.
+     * <p>
+     * With {@code --seed <seed>} every session uses the given seed, so the
+     * same level and librarian timing can be played again. With
+     * {@code --record <file>} every session is recorded into the file, and
+     * with {@code --replay <file>} starting a game plays the recording.
+     *
+     * @param args optional: {@code --seed <seed>} in decimal or {@code 0x} hexadecimal,
+     *             {@code --record <file>}, {@code --replay <file>}
      */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            GameFrame frame = new GameFrame();
-            frame.showStartMenu();
-        });
+        try {
+            SessionSeed.setFixed(SessionSeed.fromArgs(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring seed: " + e.getMessage());
+        }
+        String record = option(args, "--record");
+        if (record != null) {
+            GameFrame.setRecordPath(Paths.get(record));
+        }
+        String replay = option(args, "--replay");
+        if (replay != null) {
+            GameFrame.setReplayPath(Paths.get(replay));
+        }
+        SwingUtilities.invokeLater(GameFrame::new);
+    }
+
+    /**
+     * Returns the value following a command-line option.
+     *
+     * @param args the command-line arguments
+     * @param name the option, for example {@code --record}
+     * @return the value, or null if the option or its value is missing
+     */
+    private static String option(String[] args, String name) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
     }
 }
@@ -1,111 +1,181 @@
 package snackademy;
 
+import java.awt.Window;
 import java.awt.event.ActionEvent;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.*;
 
 /**
  * Integrates keyboard controls for the Player.
  * Supports movement in X and Y directions using WASD or arrow keys.
- * Calls onMove() after each movement to allow game logic checks.
+ * <p>
+ * Key events only record which movement keys are held down. The state is
+ * sampled once per game tick through {@link #applyTo(GameWorld)}, so the
+ * player moves at the same speed whatever the keyboard's auto-repeat rate,
+ * two keys can be held for diagonal movement, and a repeat event costs no
+ * more than setting a bit.
  */
 public class MovingPlayer {
 
-    /** Reference to the Player object that will be moved. */
-    private final Player player;
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Keys per direction: left, right, up and down, each as arrow key and letter. */
+    private static final String[][] KEYS = {
+        {"LEFT", "A"},
+        {"RIGHT", "D"},
+        {"UP", "W"},
+        {"DOWN", "S"}
+    };
+
+    /** Bit masks of the keys of each direction in {@link #heldKeys}. */
+    private static final int LEFT = 0b11;
+    private static final int RIGHT = 0b11 << 2;
+    private static final int UP = 0b11 << 4;
+    private static final int DOWN = 0b11 << 6;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
 
     /** The Swing component that receives keyboard input (usually the game panel). */
     private final JComponent component;
 
-    // Callback that is triggered after each movement
-    private Runnable onMoveCallback;
+    /** One bit per movement key in {@link #KEYS} that is held down. */
+    private int heldKeys;
+
+    /** Run whenever a movement key is pressed, or null. */
+    private Runnable onKeyPressed;
+
+    /** Window whose deactivation releases the held keys, or null. */
+    private Window watchedWindow;
+
+    /** Releases the held keys when the watched window is deactivated. */
+    private final WindowAdapter windowWatcher = new WindowAdapter() {
+        @Override
+        public void windowDeactivated(WindowEvent e) {
+            releaseAllKeys();
+        }
+    };
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
 
     /**
      * Constructs a MovingPlayer controller.
      *
-     * @param player    the Player instance to control
      * @param component the Swing component that receives keyboard focus
      */
-    public MovingPlayer(final Player player, final JComponent component) {
-        this.player = player;
+    public MovingPlayer(final JComponent component) {
         this.component = component;
-        this.onMoveCallback = null; // default no callback
         setupKeyBindings();
+
+        // Release events go elsewhere while another window is active, so
+        // listen to the window the component is shown in
+        component.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0
+                && component.isShowing()) {
+                watchWindow(SwingUtilities.getWindowAncestor(component));
+            }
+        });
     }
 
+    // -------------------------------------------------------------------------
+    // Input
+    // -------------------------------------------------------------------------
+
     /**
-     * Called after every movement. Can be overridden for custom behavior,
-     * e.g., checking if the player is caught.
+     * Hands the direction of the held keys to the simulation. Called exactly
+     * once per game tick. Opposite keys cancel each other out.
+     *
+     * @param world the simulation that moves the player
      */
-    protected void onMove() {
-        if (onMoveCallback != null) {
-            onMoveCallback.run();
-        }
+    public void applyTo(GameWorld world) {
+        world.setInput(getDirectionX(), getDirectionY());
+    }
+
+    /** Returns the horizontal direction of the held keys: -1, 0 or 1. */
+    public int getDirectionX() {
+        return ((heldKeys & RIGHT) != 0 ? 1 : 0) - ((heldKeys & LEFT) != 0 ? 1 : 0);
+    }
+
+    /** Returns the vertical direction of the held keys: -1, 0 or 1. */
+    public int getDirectionY() {
+        return ((heldKeys & DOWN) != 0 ? 1 : 0) - ((heldKeys & UP) != 0 ? 1 : 0);
+    }
+
+    /** Returns whether any movement key is held down. */
+    public boolean isAnyKeyHeld() {
+        return heldKeys != 0;
+    }
+
+    /**
+     * Sets logic to run whenever a movement key is pressed, for example to
+     * wake up a parked game loop.
+     *
+     * @param onKeyPressed the logic to run on the Event Dispatch Thread, or null
+     */
+    public void setOnKeyPressed(Runnable onKeyPressed) {
+        this.onKeyPressed = onKeyPressed;
+    }
+
+    /** Forgets all held keys, for example when their release events cannot arrive. */
+    public void releaseAllKeys() {
+        heldKeys = 0;
     }
 
     /**
-     * Sets a callback to be executed every time the player moves.
+     * Forgets the held keys whenever the window loses activation, for example
+     * to a dialog or another application. Each window is watched once.
      *
-     * @param callback a Runnable to run on each movement
+     * @param window the window the component is shown in, or null
      */
-    public void setOnMoveCallback(final Runnable callback) {
-        this.onMoveCallback = callback;
+    private void watchWindow(Window window) {
+        if (window == null || window == watchedWindow) {
+            return;
+        }
+        if (watchedWindow != null) {
+            watchedWindow.removeWindowListener(windowWatcher);
+        }
+        watchedWindow = window;
+        window.addWindowListener(windowWatcher);
     }
 
     /**
-     * Configures keyboard bindings for movement using arrow keys and WASD.
+     * Configures pressed and released bindings for the arrow keys and WASD.
      */
     private void setupKeyBindings() {
         InputMap inputMap = component.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
         ActionMap actionMap = component.getActionMap();
 
-        // LEFT
-        inputMap.put(KeyStroke.getKeyStroke("LEFT"), "moveLeft");
-        inputMap.put(KeyStroke.getKeyStroke("A"), "moveLeft");
-        actionMap.put("moveLeft", new AbstractAction() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                player.moveLeft();
-                player.setRightFacing(false);
-                player.movingAnimation(1);
-                onMove();
-            }
-        });
+        for (int direction = 0; direction < KEYS.length; direction++) {
+            for (int alternative = 0; alternative < KEYS[direction].length; alternative++) {
+                String key = KEYS[direction][alternative];
+                int bit = 1 << (direction * 2 + alternative);
 
-        // RIGHT
-        inputMap.put(KeyStroke.getKeyStroke("RIGHT"), "moveRight");
-        inputMap.put(KeyStroke.getKeyStroke("D"), "moveRight");
-        actionMap.put("moveRight", new AbstractAction() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                player.moveRight();
-                player.setRightFacing(true);
-                player.movingAnimation(0);
-                onMove();
-            }
-        });
+                inputMap.put(KeyStroke.getKeyStroke("pressed " + key), "press " + key);
+                actionMap.put("press " + key, new AbstractAction() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        heldKeys |= bit;
+                        if (onKeyPressed != null) {
+                            onKeyPressed.run();
+                        }
+                    }
+                });
 
-        // UP
-        inputMap.put(KeyStroke.getKeyStroke("UP"), "moveUp");
-        inputMap.put(KeyStroke.getKeyStroke("W"), "moveUp");
-        actionMap.put("moveUp", new AbstractAction() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                player.moveUp();
-                player.movingAnimation(2);
-                onMove();
+                inputMap.put(KeyStroke.getKeyStroke("released " + key), "release " + key);
+                actionMap.put("release " + key, new AbstractAction() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        heldKeys &= ~bit;
+                    }
+                });
             }
-        });
-
-        // DOWN
-        inputMap.put(KeyStroke.getKeyStroke("DOWN"), "moveDown");
-        inputMap.put(KeyStroke.getKeyStroke("S"), "moveDown");
-        actionMap.put("moveDown", new AbstractAction() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                player.moveDown();
-                player.movingAnimation(2);
-                onMove();
-            }
-        });
+        }
     }
 }
@@ -1,6 +1,11 @@
 package snackademy;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.sound.sampled.*;
 
 
@@ -8,11 +13,31 @@ import javax.sound.sampled.*;
  * Handles background music and sound effects for Snackademy.
  * <p>
  * Can play looping music tracks or one-time sound effects from WAV files.
+ * Music is streamed by a {@link MusicStreamer}, which crossfades between
+ * tracks and never loads a whole track into memory. Sound effects are
+ * decoded once into memory and played from a small pool of reusable clips
+ * per effect, all managed by a single audio worker thread.
  */
 public class MusicPlayer {
 
-    /** Clip currently used for background music. */
-    private Clip musicClip;
+    /** Number of clips per sound effect that can play at the same time. */
+    private static final int CLIPS_PER_SOUND = 3;
+
+    /** Streams the background music on its own thread. */
+    private final MusicStreamer musicStreamer = new MusicStreamer();
+
+    /** Open clips per sound effect path. Only used on the audio worker. */
+    private final Map<String, Clip[]> soundBank = new HashMap<>();
+
+    /** Next clip to use per sound effect path. Only used on the audio worker. */
+    private final Map<String, Integer> nextClip = new HashMap<>();
+
+    /** Single worker thread that loads and starts all sound effects. */
+    private final ExecutorService audioWorker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "audio-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // -------------------------------------------------------------------------
     // Music Control
@@ -20,58 +45,146 @@ public class MusicPlayer {
 
     /**
      * Plays background music from a WAV file.
+     * <p>
+     * Returns immediately; the track is opened on the streaming thread.
+     * If other music is playing, it is crossfaded into the new track. If the
+     * same track is already playing, it simply continues.
      *
      * @param path Path to the WAV file
      * @param loop If true, the music loops continuously
      */
     public void playMusic(String path, boolean loop) {
-        stopMusic();
-        try {
-            AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(path));
-            musicClip = AudioSystem.getClip();
-            musicClip.open(audioIn);
-
-            if (loop) {
-                musicClip.loop(Clip.LOOP_CONTINUOUSLY);
-            }
-
-            musicClip.start();
-        } catch (Exception e) {
-            System.err.println("Failed to play music: " + path);
-            e.printStackTrace();
-        }
+        musicStreamer.play(path, loop);
     }
 
     /**
      * Stops the currently playing background music.
      */
     public void stopMusic() {
-        if (musicClip != null && musicClip.isRunning()) {
-            musicClip.stop();
-            musicClip.close();
-        }
+        musicStreamer.stop();
     }
 
     // -------------------------------------------------------------------------
     // Sound Effects
     // -------------------------------------------------------------------------
 
+    /**
+     * Decodes a sound effect in the background so that its first play has no
+     * loading delay. Does nothing if the effect is already loaded.
+     *
+     * @param path Path to the WAV file
+     */
+    public void preloadSound(String path) {
+        audioWorker.execute(() -> getSoundClips(path));
+    }
+
     /**
      * Plays a short, non-looping sound effect from a WAV file.
+     * <p>
+     * Uses a free clip from the effect's pool. When all clips are busy, the
+     * one that was started longest ago is restarted.
      *
      * @param path Path to the WAV file
      */
     public void playSound(String path) {
-        new Thread(() -> {
-            try {
-                AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(path));
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioIn);
-                clip.start();
-            } catch (Exception e) {
-                System.err.println("Failed to play sound: " + path);
-                e.printStackTrace();
+        audioWorker.execute(() -> {
+            Clip[] clips = getSoundClips(path);
+            if (clips == null) {
+                return;
+            }
+
+            int start = nextClip.get(path);
+            int index = start;
+            for (int i = 0; i < clips.length; i++) {
+                int candidate = (start + i) % clips.length;
+                if (!clips[candidate].isActive()) {
+                    index = candidate;
+                    break;
+                }
             }
-        }).start();
+            nextClip.put(path, (index + 1) % clips.length);
+
+            Clip clip = clips[index];
+            clip.stop();
+            clip.setFramePosition(0);
+            clip.start();
+        });
+    }
+
+    /**
+     * Stops all sounds and releases the music stream, the clips and the
+     * audio worker. The player cannot play anything afterwards.
+     */
+    public void close() {
+        musicStreamer.close();
+        audioWorker.execute(() -> {
+            for (Clip[] clips : soundBank.values()) {
+                if (clips != null) {
+                    for (Clip clip : clips) {
+                        clip.close();
+                    }
+                }
+            }
+            soundBank.clear();
+        });
+        audioWorker.shutdown();
+    }
+
+    /**
+     * Returns the clip pool of a sound effect, decoding it on first use.
+     * Must only be called on the audio worker.
+     *
+     * @param path Path to the WAV file
+     * @return the clips of the effect, or null if it could not be loaded
+     */
+    private Clip[] getSoundClips(String path) {
+        if (soundBank.containsKey(path)) {
+            return soundBank.get(path);
+        }
+
+        Clip[] clips = null;
+        try (AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(path))) {
+            AudioFormat format = audioIn.getFormat();
+            byte[] data = readFully(audioIn);
+
+            clips = new Clip[CLIPS_PER_SOUND];
+            for (int i = 0; i < clips.length; i++) {
+                clips[i] = AudioSystem.getClip();
+                clips[i].open(format, data, 0, data.length);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to load sound: " + path);
+            e.printStackTrace();
+            if (clips != null) {
+                for (Clip clip : clips) {
+                    if (clip != null) {
+                        clip.close();
+                    }
+                }
+            }
+            clips = null;
+        }
+
+        // Also remember failures, so a missing file is not read again on every play
+        soundBank.put(path, clips);
+        nextClip.put(path, 0);
+        return clips;
+    }
+
+    /**
+     * Reads all remaining audio data of a stream into memory.
+     *
+     * @param audioIn the stream to read
+     * @return the audio data
+     * @throws java.io.IOException if reading fails
+     */
+    private static byte[] readFully(AudioInputStream audioIn) throws java.io.IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = audioIn.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
     }
 }
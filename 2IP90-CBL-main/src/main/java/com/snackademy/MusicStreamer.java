@@ -0,0 +1,360 @@
+package snackademy;
+
+import java.io.File;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Streams background music from WAV files to a {@link SourceDataLine}.
+ * <p>
+ * A dedicated thread decodes the current track in small fixed-size chunks and
+ * keeps the line's buffer topped up, so memory use does not depend on the
+ * track length. Looping tracks are reopened as soon as they end and continue
+ * in the same chunk, which makes the loop gapless. When another track is
+ * requested while music is playing, the two tracks are crossfaded.
+ * <p>
+ * {@link #play(String, boolean)} and {@link #stop()} only post a request,
+ * so callers never wait for a file to be opened or decoded.
+ */
+public class MusicStreamer implements Runnable {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Format all tracks are converted to: 44.1 kHz, 16-bit, stereo, little-endian. */
+    private static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+
+    /** Size of one decoded chunk in bytes (about 23 ms of audio). */
+    private static final int CHUNK_BYTES = 4096;
+
+    /** Size of the line's buffer in bytes (about 93 ms of audio). */
+    private static final int LINE_BUFFER_BYTES = CHUNK_BYTES * 4;
+
+    /** Length of a crossfade between two tracks in bytes (1.5 seconds). */
+    private static final int CROSSFADE_BYTES = (int) (FORMAT.getFrameRate() * 1.5f)
+        * FORMAT.getFrameSize();
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Guards the request fields below. */
+    private final Object lock = new Object();
+
+    /** Requested track path, or null to stop. */
+    private String requestedPath;
+
+    /** Whether the requested track should loop. */
+    private boolean requestedLoop;
+
+    /** Whether a request is waiting to be handled by the streaming thread. */
+    private boolean requestPending;
+
+    /** False once the streamer has been closed. */
+    private boolean running = true;
+
+    /** Track that is currently playing. Only used on the streaming thread. */
+    private Track current;
+
+    /** Track that is fading out, or null. Only used on the streaming thread. */
+    private Track fading;
+
+    /** Number of crossfade bytes already written. */
+    private int fadePosition;
+
+    /** Reused chunk buffers for the current and the fading track. */
+    private final byte[] chunk = new byte[CHUNK_BYTES];
+    private final byte[] fadeChunk = new byte[CHUNK_BYTES];
+
+    /** The audio output line. Only used on the streaming thread. */
+    private SourceDataLine line;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /** Constructs a MusicStreamer and starts its streaming thread. */
+    public MusicStreamer() {
+        Thread thread = new Thread(this, "music-streamer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // -------------------------------------------------------------------------
+    // Requests
+    // -------------------------------------------------------------------------
+
+    /**
+     * Requests a track. If another track is playing, the two are crossfaded.
+     * Requesting the track that is already playing has no effect.
+     *
+     * @param path Path to the WAV file
+     * @param loop If true, the track loops continuously
+     */
+    public void play(String path, boolean loop) {
+        synchronized (lock) {
+            requestedPath = path;
+            requestedLoop = loop;
+            requestPending = true;
+            lock.notifyAll();
+        }
+    }
+
+    /** Stops the music immediately. */
+    public void stop() {
+        play(null, false);
+    }
+
+    /** Stops the music and ends the streaming thread. */
+    public void close() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Streaming Thread
+    // -------------------------------------------------------------------------
+
+    /** Main loop of the streaming thread. */
+    @Override
+    public void run() {
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, LINE_BUFFER_BYTES);
+        } catch (Exception e) {
+            System.err.println("Failed to open music output line");
+            e.printStackTrace();
+            return;
+        }
+
+        try {
+            while (true) {
+                String path;
+                boolean loop;
+                boolean pending;
+                synchronized (lock) {
+                    while (running && !requestPending && current == null && fading == null) {
+                        lock.wait(); // Idle: no wake-ups until the next request
+                    }
+                    if (!running) {
+                        break;
+                    }
+                    path = requestedPath;
+                    loop = requestedLoop;
+                    pending = requestPending;
+                    requestPending = false;
+                }
+
+                if (pending) {
+                    handleRequest(path, loop);
+                }
+                if (current != null || fading != null) {
+                    streamChunk();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeTracks();
+            line.close();
+        }
+    }
+
+    /**
+     * Switches to the requested track, starting a crossfade if needed.
+     *
+     * @param path the requested track, or null to stop
+     * @param loop whether the requested track loops
+     */
+    private void handleRequest(String path, boolean loop) {
+        if (path == null) {
+            closeTracks();
+            line.stop();
+            line.flush();
+            return;
+        }
+
+        if (current != null && current.path.equals(path)) {
+            current.loop = loop;
+            return;
+        }
+
+        Track next;
+        try {
+            next = new Track(path, loop);
+        } catch (Exception e) {
+            System.err.println("Failed to play music: " + path);
+            e.printStackTrace();
+            return;
+        }
+
+        if (current != null) {
+            if (fading != null) {
+                fading.close();
+            }
+            fading = current;
+            fadePosition = 0;
+        }
+        current = next;
+        line.start();
+    }
+
+    /** Decodes one chunk, mixes in the fading track and writes it to the line. */
+    private void streamChunk() {
+        int length = readChunk(current, chunk);
+        if (current != null && length < CHUNK_BYTES) {
+            current.close(); // Non-looping track ended
+            current = null;
+        }
+
+        if (fading != null) {
+            int fadeLength = readChunk(fading, fadeChunk);
+            mixCrossfade(Math.max(length, fadeLength));
+            length = Math.max(length, fadeLength);
+
+            fadePosition += CHUNK_BYTES;
+            if (fadePosition >= CROSSFADE_BYTES || fadeLength < CHUNK_BYTES) {
+                fading.close();
+                fading = null;
+            }
+        }
+
+        if (length > 0) {
+            line.write(chunk, 0, length);
+        }
+        if (current == null && fading == null) {
+            line.drain();
+        }
+    }
+
+    /**
+     * Fills a buffer from a track. Bytes after the end of the track are zero.
+     *
+     * @param track the track to read, or null for silence
+     * @param buffer the buffer to fill
+     * @return the number of bytes read from the track
+     */
+    private int readChunk(Track track, byte[] buffer) {
+        int length = 0;
+        if (track != null) {
+            try {
+                length = track.read(buffer);
+            } catch (Exception e) {
+                System.err.println("Failed to stream music: " + track.path);
+                e.printStackTrace();
+            }
+        }
+        java.util.Arrays.fill(buffer, length, buffer.length, (byte) 0);
+        return length;
+    }
+
+    /**
+     * Mixes the fading chunk into the current chunk with a linear crossfade.
+     *
+     * @param length number of bytes to mix
+     */
+    private void mixCrossfade(int length) {
+        for (int i = 0; i + 1 < length; i += 2) {
+            float in = Math.min(1f, (fadePosition + i) / (float) CROSSFADE_BYTES);
+            int newSample = (chunk[i + 1] << 8) | (chunk[i] & 0xff);
+            int oldSample = (fadeChunk[i + 1] << 8) | (fadeChunk[i] & 0xff);
+            int mixed = Math.round(newSample * in + oldSample * (1f - in));
+            mixed = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixed));
+            chunk[i] = (byte) mixed;
+            chunk[i + 1] = (byte) (mixed >> 8);
+        }
+    }
+
+    /** Closes the current and the fading track. */
+    private void closeTracks() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        if (fading != null) {
+            fading.close();
+            fading = null;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Track
+    // -------------------------------------------------------------------------
+
+    /** An open music file, decoded on demand in the common format. */
+    private static final class Track {
+
+        /** Path to the WAV file. */
+        final String path;
+
+        /** Whether the track restarts when it ends. */
+        boolean loop;
+
+        /** Decoded stream of the track. */
+        private AudioInputStream stream;
+
+        /**
+         * Opens a track.
+         *
+         * @param path Path to the WAV file
+         * @param loop If true, the track loops continuously
+         * @throws Exception if the file cannot be opened or converted
+         */
+        Track(String path, boolean loop) throws Exception {
+            this.path = path;
+            this.loop = loop;
+            this.stream = open(path);
+        }
+
+        /** Opens the file and converts it to the common format. */
+        private static AudioInputStream open(String path) throws Exception {
+            AudioInputStream source = AudioSystem.getAudioInputStream(new File(path));
+            if (source.getFormat().matches(FORMAT)) {
+                return source;
+            }
+            return AudioSystem.getAudioInputStream(FORMAT, source);
+        }
+
+        /**
+         * Fills the buffer as far as possible. A looping track is reopened
+         * when it ends and continues within the same buffer, without a gap.
+         *
+         * @param buffer the buffer to fill
+         * @return the number of bytes read
+         * @throws Exception if reading or reopening fails
+         */
+        int read(byte[] buffer) throws Exception {
+            int filled = 0;
+            boolean reopened = false;
+            while (filled < buffer.length) {
+                int read = stream.read(buffer, filled, buffer.length - filled);
+                if (read > 0) {
+                    filled += read;
+                    reopened = false;
+                } else if (read < 0) {
+                    if (!loop || reopened) {
+                        break; // Track ended, or it is empty
+                    }
+                    stream.close();
+                    stream = open(path);
+                    reopened = true;
+                }
+            }
+            return filled;
+        }
+
+        /** Closes the track. */
+        void close() {
+            try {
+                stream.close();
+            } catch (java.io.IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+}
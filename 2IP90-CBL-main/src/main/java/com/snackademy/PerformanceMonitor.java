@@ -0,0 +1,387 @@
+package snackademy;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import javax.swing.SwingUtilities;
+
+/**
+ * Collects live performance metrics for the debug HUD.
+ * <p>
+ * Frame, tick and paint durations are recorded by the game as they happen.
+ * While the monitor is started, a sampler thread also measures how long a
+ * task waits in the Event Dispatch Thread queue, the allocation rate of all
+ * threads and the garbage collection pauses reported by the platform MXBeans.
+ * Stopped, the monitor costs nothing beyond the recording calls.
+ * <p>
+ * The rolling windows are only touched on the Event Dispatch Thread; the
+ * allocation and GC values are published through volatile fields.
+ */
+public class PerformanceMonitor {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Number of samples kept per metric. */
+    public static final int WINDOW = 240;
+
+    /** Interval between EDT latency probes in milliseconds. */
+    private static final long PROBE_INTERVAL_MS = 100;
+
+    /** Number of probes between allocation rate measurements (once per second). */
+    private static final int PROBES_PER_ALLOCATION_SAMPLE = 10;
+
+    /** Time without a frame after which the frame rate counts as 0, in nanoseconds. */
+    private static final long IDLE_FRAME_NANOS = 1_000_000_000L;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Time between two shown frames, in nanoseconds. */
+    private final Window frames = new Window();
+
+    /** Duration of a logic tick, in nanoseconds. */
+    private final Window ticks = new Window();
+
+    /** Duration of painting a frame, in nanoseconds. */
+    private final Window paints = new Window();
+
+    /** Time a task waited in the EDT queue, in nanoseconds. */
+    private final Window edtLatency = new Window();
+
+    /** Time the previous frame was shown, or 0. */
+    private long lastFrame;
+
+    /** Called on the EDT after every latency probe, for example to repaint the HUD. */
+    private Runnable onSample;
+
+    /** Sampler thread, created on first start. */
+    private ScheduledExecutorService sampler;
+
+    /** Running probe task, or null while stopped. */
+    private ScheduledFuture<?> probeTask;
+
+    /** Receives GC notifications while started. */
+    private final NotificationListener gcListener = this::handleGcNotification;
+
+    /** Allocation rate of all threads in bytes per second, or -1 if unknown. */
+    private volatile double allocationRate = -1;
+
+    /** Number of GC pauses and their total duration since the monitor was started. */
+    private volatile long gcCount;
+    private volatile long gcTotalMillis;
+
+    /** Duration of the last GC pause and the longest since start, in milliseconds. */
+    private volatile long gcLastMillis;
+    private volatile long gcMaxMillis;
+
+    /** State of the allocation rate measurement, only used on the sampler thread. */
+    private int probesSinceAllocationSample;
+    private long lastAllocatedBytes = -1;
+    private long lastAllocationTime;
+
+    // -------------------------------------------------------------------------
+    // Recording
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records that a frame was shown. Call on the EDT once per frame.
+     *
+     * @param paintNanos time it took to paint the frame
+     */
+    public void recordFrame(long paintNanos) {
+        long now = System.nanoTime();
+        if (lastFrame != 0) {
+            frames.add(now - lastFrame);
+        }
+        lastFrame = now;
+        paints.add(paintNanos);
+    }
+
+    /**
+     * Returns the frame rate from the median time between frames in the last
+     * summary of the frame window, or 0 if no frame was shown during the last
+     * second, for example while the game is idle. Call on the EDT.
+     *
+     * @return frames per second
+     */
+    public double getFramesPerSecond() {
+        long p50 = frames.getP50();
+        if (p50 <= 0 || lastFrame == 0 || System.nanoTime() - lastFrame > IDLE_FRAME_NANOS) {
+            return 0;
+        }
+        return 1e9 / p50;
+    }
+
+    /**
+     * Records the duration of a logic tick. Call on the EDT.
+     *
+     * @param nanos duration of the tick
+     */
+    public void recordTick(long nanos) {
+        ticks.add(nanos);
+    }
+
+    // -------------------------------------------------------------------------
+    // Sampling
+    // -------------------------------------------------------------------------
+
+    /**
+     * Starts measuring EDT latency, allocation rate and GC pauses.
+     *
+     * @param onSample run on the EDT after every probe, or null
+     */
+    public synchronized void start(Runnable onSample) {
+        if (probeTask != null) {
+            return;
+        }
+        this.onSample = onSample;
+        if (sampler == null) {
+            sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "performance-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        gcCount = 0;
+        gcTotalMillis = 0;
+        gcLastMillis = 0;
+        gcMaxMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener(gcListener, null, null);
+            }
+        }
+
+        lastAllocatedBytes = -1;
+        probeTask = sampler.scheduleAtFixedRate(
+            this::probe, 0, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS
+        );
+    }
+
+    /** Stops the sampling and ends the sampler thread. */
+    public synchronized void stop() {
+        if (probeTask != null) {
+            probeTask.cancel(false);
+            probeTask = null;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter) {
+                    try {
+                        ((NotificationEmitter) gc).removeNotificationListener(gcListener);
+                    } catch (Exception e) {
+                        // Listener was never registered on this collector
+                    }
+                }
+            }
+        }
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    /** Returns whether the monitor is sampling. */
+    public synchronized boolean isRunning() {
+        return probeTask != null;
+    }
+
+    /** Posts a latency probe to the EDT and measures the allocation rate now and then. */
+    private void probe() {
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            edtLatency.add(System.nanoTime() - posted);
+            Runnable callback = onSample;
+            if (callback != null) {
+                callback.run();
+            }
+        });
+
+        if (++probesSinceAllocationSample >= PROBES_PER_ALLOCATION_SAMPLE) {
+            probesSinceAllocationSample = 0;
+            sampleAllocationRate();
+        }
+    }
+
+    /** Measures the allocation rate of all live threads since the previous sample. */
+    private void sampleAllocationRate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported()
+            || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+
+        long total = 0;
+        for (long bytes : sunThreads.getThreadAllocatedBytes(sunThreads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        long now = System.nanoTime();
+        if (lastAllocatedBytes >= 0 && total >= lastAllocatedBytes) {
+            allocationRate = (total - lastAllocatedBytes) * 1e9 / (now - lastAllocationTime);
+        }
+        lastAllocatedBytes = total;
+        lastAllocationTime = now;
+    }
+
+    /** Records the duration of a finished garbage collection. */
+    private void handleGcNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+            .equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+            (CompositeData) notification.getUserData()
+        );
+        long duration = info.getGcInfo().getDuration();
+        gcCount++;
+        gcTotalMillis += duration;
+        gcLastMillis = duration;
+        gcMaxMillis = Math.max(gcMaxMillis, duration);
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /** Returns the frame intervals; read on the EDT only. */
+    public Window getFrames() {
+        return frames;
+    }
+
+    /** Returns the tick durations; read on the EDT only. */
+    public Window getTicks() {
+        return ticks;
+    }
+
+    /** Returns the paint durations; read on the EDT only. */
+    public Window getPaints() {
+        return paints;
+    }
+
+    /** Returns the EDT queue latencies; read on the EDT only. */
+    public Window getEdtLatency() {
+        return edtLatency;
+    }
+
+    /** Returns the allocation rate in bytes per second, or -1 if not measured yet. */
+    public double getAllocationRate() {
+        return allocationRate;
+    }
+
+    /** Returns the number of GC pauses since the monitor was started. */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /** Returns the total GC pause time in milliseconds since the monitor was started. */
+    public long getGcTotalMillis() {
+        return gcTotalMillis;
+    }
+
+    /** Returns the duration of the last GC pause in milliseconds. */
+    public long getGcLastMillis() {
+        return gcLastMillis;
+    }
+
+    /** Returns the longest GC pause in milliseconds since the monitor was started. */
+    public long getGcMaxMillis() {
+        return gcMaxMillis;
+    }
+
+    // -------------------------------------------------------------------------
+    // Rolling Window
+    // -------------------------------------------------------------------------
+
+    /**
+     * Ring buffer of the most recent {@link #WINDOW} samples of one metric,
+     * with rolling percentiles. Adding and summarizing never allocate.
+     */
+    public static final class Window {
+
+        /** Samples in insertion order, wrapping around. */
+        private final long[] samples = new long[WINDOW];
+
+        /** Sorted copy of the samples, filled by {@link #summarize()}. */
+        private final long[] sorted = new long[WINDOW];
+
+        /** Number of valid samples and the next position to write. */
+        private int count;
+        private int next;
+
+        /** Percentiles computed by the last call to {@link #summarize()}. */
+        private long p50;
+        private long p99;
+        private long max;
+
+        /** Adds a sample, replacing the oldest once the window is full. */
+        public void add(long value) {
+            samples[next] = value;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+        }
+
+        /** Recomputes the percentiles of the samples in the window. */
+        public void summarize() {
+            if (count == 0) {
+                p50 = 0;
+                p99 = 0;
+                max = 0;
+                return;
+            }
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            p50 = sorted[(count - 1) / 2];
+            p99 = sorted[(int) Math.ceil(count * 0.99) - 1];
+            max = sorted[count - 1];
+        }
+
+        /** Returns the number of samples in the window. */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Returns a sample by age.
+         *
+         * @param age 0 for the oldest sample in the window
+         * @return the sample
+         */
+        public long get(int age) {
+            int start = count < WINDOW ? 0 : next;
+            return samples[(start + age) % WINDOW];
+        }
+
+        /** Returns the median from the last summary. */
+        public long getP50() {
+            return p50;
+        }
+
+        /** Returns the 99th percentile from the last summary. */
+        public long getP99() {
+            return p99;
+        }
+
+        /** Returns the maximum from the last summary. */
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package snackademy;
 
 import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
@@ -10,30 +10,31 @@ import javax.swing.JLabel;
 import javax.swing.Timer;
 
 /**
- * Represents the player character in the Snackademy game.
- * Handles movement, animation, and snack state.
+ * Displays the player character in the Snackademy game.
+ * Handles the sprite position, walking animation, and snack look; the
+ * player's movement and hitboxes are simulated by {@link GameWorld}.
  */
 public class Player {
 
     private int x;
     private int y;
 
-    private final int startX;
-    private final int startY;
-
     private boolean rightFacing = true;
     private boolean hasSnack = false; // Track if player has snack
 
     private final JLabel label;
     private final ImageIcon icon;
-    private Icon[] imageIcons;
 
-    private static final int SIZE = 100; // Player image size in pixels
+    /** Animation frames at render size, indexed by facing (0 = right, 1 = left). */
+    private final Icon[][] frameCache = new Icon[2][];
+
+    private static final int SIZE = GameWorld.PLAYER_SIZE; // Player image size in pixels
+    private static final int FRAME_DELAY = 150; // Milliseconds per animation frame
     private static int speed = 5; // Movement step size in pixels
 
     private int[] frames = {3, 5, 4, 5}; // Current animation frames
-
-    Rectangle playerBounds;
+    private int currentFrame = 0; // Position in the frames sequence
+    private final Timer animationTimer; // Single timer reused for every animation burst
 
     /** 
      * Default constructor initializes the player at (0, 0). 
@@ -49,19 +50,18 @@ public class Player {
      * @param startY initial y coordinate
      */
     public Player(final int startX, final int startY) {
-        this.startX = startX;
-        this.startY = startY;
         this.x = startX;
         this.y = startY;
 
-        // this.playerBounds = 
-
         icon = loadIcon();
 
         label = new JLabel(icon);
         label.setBounds(x, y, SIZE, SIZE);
 
         loadAnimationIcons();
+
+        animationTimer = new Timer(FRAME_DELAY, e -> showNextFrame());
+        animationTimer.setInitialDelay(0);
     }
 
     /**
@@ -84,30 +84,6 @@ public class Player {
 
     // --- Movement methods ---
 
-    /** Moves the player left. */
-    public void moveLeft() {
-        x = Math.max(0, x - speed);
-        updateLabel();
-    }
-
-    /** Moves the player right. */
-    public void moveRight() {
-        x += speed;
-        updateLabel();
-    }
-
-    /** Moves the player up. */
-    public void moveUp() {
-        y = Math.max(0, y - speed);
-        updateLabel();
-    }
-
-    /** Moves the player down. */
-    public void moveDown() {
-        y += speed;
-        updateLabel();
-    }
-
     /**
      * Moves the player to specific coordinates.
      *
@@ -120,13 +96,6 @@ public class Player {
         updateLabel();
     }
 
-    /** Resets the player position to the start coordinates. */
-    public void resetPosition() {
-        x = startX;
-        y = startY;
-        updateLabel();
-    }
-
     /** Returns the current x coordinate. */
     public int getX() {
         return x;
@@ -174,21 +143,18 @@ public class Player {
 
     /** Loads the default standing image of the player. */
     private ImageIcon loadIcon() {
-        java.net.URL url = getClass().getResource("/snackademy/resources/Standing.png");
-
-        if (url == null) {
-            throw new RuntimeException("Player image not found");
-        }
-
         try {
-            Image img = javax.imageio.ImageIO.read(url);
+            Image img = AssetManager.getImage("Standing.png");
             return new ImageIcon(img.getScaledInstance(SIZE, SIZE, Image.SCALE_SMOOTH));
         } catch (Exception e) {
             throw new RuntimeException("Failed to load player image", e);
         }
     }
 
-    /** Loads all walking and snacking animation images. */
+    /**
+     * Loads all walking and snacking animation images and caches them at
+     * render size for both facings, so animating never allocates.
+     */
     public void loadAnimationIcons() {
         String[] imageNames = {
             "SnacksLeftFoot.png",
@@ -199,25 +165,40 @@ public class Player {
             "Standing.png"
         };
 
-        imageIcons = new Icon[imageNames.length];
+        Icon[] rightIcons = new Icon[imageNames.length];
+        Icon[] leftIcons = new Icon[imageNames.length];
 
         for (int i = 0; i < imageNames.length; i++) {
-            java.net.URL url = getClass().getResource("/snackademy/resources/" + imageNames[i]);
-
-            if (url == null) {
-                throw new RuntimeException("Player image not found: " + imageNames[i]);
-            }
-
             try {
-                Image img = javax.imageio.ImageIO.read(url);
-                imageIcons[i] = new ImageIcon(
-                    img.getScaledInstance(SIZE, SIZE, Image.SCALE_SMOOTH));
+                Image img = AssetManager.getImage(imageNames[i]);
+                rightIcons[i] = new ImageIcon(toRenderSize(img));
+                leftIcons[i] = horizontalFlip(rightIcons[i]);
             } catch (Exception ex) {
                 throw new RuntimeException(
                     "Failed to load player image: " + imageNames[i], ex
                 );
             }
         }
+
+        frameCache[0] = rightIcons;
+        frameCache[1] = leftIcons;
+    }
+
+    /**
+     * Draws an image into a new image of exactly the player render size.
+     *
+     * @param img the source image
+     * @return the image scaled to SIZE x SIZE
+     */
+    private static BufferedImage toRenderSize(Image img) {
+        BufferedImage scaled = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(
+            RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC
+        );
+        g.drawImage(img, 0, 0, SIZE, SIZE, null);
+        g.dispose();
+        return scaled;
     }
 
     /**
@@ -242,46 +223,26 @@ public class Player {
         } else if (direction == 1) {
             rightFacing = false;
         }
-        
-        final int frameDelay = 150;
-        final int[] currentFrame = {0};
 
-        Timer existingTimer = (Timer) label.getClientProperty("animationTimer");
-        if (existingTimer != null && existingTimer.isRunning()) {
+        if (animationTimer.isRunning()) {
             return; // Skip starting a new animation
         }
 
-
-        Timer timer = new Timer(frameDelay, e -> {
-            Icon iconToShow = imageIcons[frames[currentFrame[0]]];
-
-            if (!rightFacing) {
-                iconToShow = horizontalFlip(iconToShow);
-            }
-
-            label.setIcon(iconToShow);
-
-            currentFrame[0]++;
-
-            if (currentFrame[0] >= frames.length) {
-                ((Timer) e.getSource()).stop();
-
-                if (rightFacing) {
-                    label.setIcon(imageIcons[frames[3]]);
-                } else {
-                    label.setIcon(horizontalFlip(imageIcons[frames[3]]));
-                }
-            }
-        });
-
-        label.putClientProperty("animationTimer", timer);
-        timer.setInitialDelay(0);
-        timer.start();
+        currentFrame = 0;
+        animationTimer.restart();
     }
 
+    /** Shows the next frame of the current animation burst. */
+    private void showNextFrame() {
+        Icon[] facingFrames = frameCache[rightFacing ? 0 : 1];
+        label.setIcon(facingFrames[frames[currentFrame]]);
 
-    public Rectangle getRectangleBounds() {
-        return new Rectangle(x, y + SIZE * 7 / 8, SIZE, SIZE / 8);
+        currentFrame++;
+
+        if (currentFrame >= frames.length) {
+            animationTimer.stop();
+            label.setIcon(facingFrames[frames[3]]);
+        }
     }
 
 
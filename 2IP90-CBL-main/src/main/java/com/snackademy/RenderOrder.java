@@ -0,0 +1,118 @@
+package snackademy;
+
+import java.awt.Component;
+import java.util.List;
+
+/**
+ * Persistent depth order of the game sprites, front to back.
+ * <p>
+ * Sprites lower on the screen (larger Y) are in front. The order is kept
+ * between frames: when one sprite moves, only that sprite is shifted to its
+ * new place, like one step of an insertion sort, and the caller learns
+ * whether the order changed at all. Sprites with equal Y keep their
+ * relative order.
+ */
+public class RenderOrder {
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** The sprites, front (largest Y) to back. */
+    private final Component[] order;
+
+    /** Index at which the most recently moved sprite was found or placed. */
+    private int hint;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    /**
+     * Constructs the order of the given sprites and sorts it.
+     *
+     * @param sprites the sprites to order
+     */
+    public RenderOrder(List<? extends Component> sprites) {
+        order = sprites.toArray(new Component[0]);
+        sortAll();
+    }
+
+    // -------------------------------------------------------------------------
+    // Ordering
+    // -------------------------------------------------------------------------
+
+    /** Sorts all sprites again, for example after the level was laid out. */
+    public void sortAll() {
+        for (int i = 1; i < order.length; i++) {
+            Component current = order[i];
+            int y = current.getY();
+            int j = i - 1;
+            while (j >= 0 && order[j].getY() < y) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    /**
+     * Moves one sprite to its place for its current Y. All other sprites
+     * must still be in order.
+     *
+     * @param sprite the sprite that moved
+     * @return its new index if the order changed, or -1 if it did not
+     */
+    public int update(Component sprite) {
+        int from = indexOf(sprite);
+        if (from < 0) {
+            return -1;
+        }
+        int y = sprite.getY();
+
+        int to = from;
+        while (to > 0 && order[to - 1].getY() < y) {
+            order[to] = order[to - 1];
+            to--;
+        }
+        while (to < order.length - 1 && order[to + 1].getY() > y) {
+            order[to] = order[to + 1];
+            to++;
+        }
+        order[to] = sprite;
+        hint = to;
+        return to != from ? to : -1;
+    }
+
+    /** Finds a sprite, trying the last moved position first. */
+    private int indexOf(Component sprite) {
+        if (hint < order.length && order[hint] == sprite) {
+            return hint;
+        }
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] == sprite) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /** Returns the number of sprites. */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Returns a sprite by depth.
+     *
+     * @param index 0 for the front-most sprite
+     * @return the sprite at that depth
+     */
+    public Component get(int index) {
+        return order[index];
+    }
+}
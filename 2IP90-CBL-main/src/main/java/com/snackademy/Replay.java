@@ -0,0 +1,272 @@
+package snackademy;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A recorded game session, read from a file written by {@link ReplayRecorder},
+ * and the position of its playback.
+ * <p>
+ * The header holds everything needed to build the same session again:
+ * {@link #createWorld()} returns a world with the recorded seed, shelf count
+ * and speed. Played back tick by tick, the events restore the recorded input
+ * of every tick, the layouts and the resets, so the simulation runs exactly
+ * as it did while recording.
+ */
+public class Replay {
+
+    // -------------------------------------------------------------------------
+    // Playback Handler
+    // -------------------------------------------------------------------------
+
+    /** Carries out the recorded events that are not input. */
+    public interface Handler {
+
+        /**
+         * Lays out the level at the recorded size.
+         *
+         * @param width level width in pixels
+         * @param height level height in pixels
+         */
+        void layout(int width, int height);
+
+        /** Resets the session, as "Try Again" did while recording. */
+        void reset();
+    }
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Session settings from the header. */
+    private final long seed;
+    private final int shelves;
+    private final int speed;
+    private final int students;
+    private final int librarians;
+
+    /** Decoded events: tick, code, and for layouts the width and height. */
+    private long[] ticks = new long[64];
+    private byte[] codes = new byte[64];
+    private int[] widths = new int[64];
+    private int[] heights = new int[64];
+    private int count;
+
+    /** Tick at which the recording ends. */
+    private long endTick;
+
+    /** Index of the next event to play. */
+    private int next;
+
+    /** Input of the current tick. */
+    private int inputX;
+    private int inputY;
+
+    // -------------------------------------------------------------------------
+    // Reading
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads a replay file.
+     *
+     * @param path the replay file
+     * @return the replay, ready to play from the start
+     * @throws IOException if the file cannot be read or is not a valid replay
+     */
+    public static Replay read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return new Replay(in);
+        }
+    }
+
+    /**
+     * Reads a replay from a stream.
+     *
+     * @param stream the replay data; not closed
+     * @throws IOException if the stream cannot be read or is not a valid replay
+     */
+    public Replay(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        seed = in.readLong();
+        shelves = readVarInt(in);
+        speed = readVarInt(in);
+        students = readVarInt(in);
+        librarians = readVarInt(in);
+
+        long tick = 0;
+        try {
+            while (true) {
+                long eventTick = tick + readVarLong(in);
+                int code = in.readUnsignedByte();
+                if (code > ReplayRecorder.END) {
+                    throw new IOException("Unknown replay event " + code);
+                }
+                int width = 0;
+                int height = 0;
+                if (code == ReplayRecorder.LAYOUT) {
+                    width = readVarInt(in);
+                    height = readVarInt(in);
+                }
+                tick = eventTick;
+                if (code == ReplayRecorder.END) {
+                    break;
+                }
+                add(tick, code, width, height);
+            }
+        } catch (EOFException e) {
+            // Recording was cut off, for example by a crash: play the complete events
+        }
+        endTick = tick;
+    }
+
+    /** Appends a decoded event. */
+    private void add(long tick, int code, int width, int height) {
+        if (count == ticks.length) {
+            int capacity = count * 2;
+            ticks = Arrays.copyOf(ticks, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+        ticks[count] = tick;
+        codes[count] = (byte) code;
+        widths[count] = width;
+        heights[count] = height;
+        count++;
+    }
+
+    /** Reads a varint written by {@link ReplayRecorder}. */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint too long");
+    }
+
+    /** Reads a varint that must fit in an int. */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    // -------------------------------------------------------------------------
+    // Playback
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a new session with the recorded seed, shelf count and speed.
+     * Its level is laid out by the first played event.
+     *
+     * @return a new simulation for this replay
+     */
+    public GameWorld createWorld() {
+        return new GameWorld(shelves, speed, seed);
+    }
+
+    /**
+     * Plays all events due before the tick after {@code tick} completed
+     * ticks, and sets that tick's input to {@link #getInputX()} and
+     * {@link #getInputY()}.
+     *
+     * @param tick number of ticks the session has completed
+     * @param handler carries out layouts and resets
+     */
+    public void play(long tick, Handler handler) {
+        while (next < count && ticks[next] <= tick) {
+            int code = codes[next];
+            if (code == ReplayRecorder.RESET) {
+                handler.reset();
+            } else if (code == ReplayRecorder.LAYOUT) {
+                handler.layout(widths[next], heights[next]);
+            } else {
+                inputX = code / 3 - 1;
+                inputY = code % 3 - 1;
+            }
+            next++;
+        }
+        if (tick >= endTick) {
+            inputX = 0;
+            inputY = 0;
+        }
+    }
+
+    /** Starts the playback from the beginning again. */
+    public void rewind() {
+        next = 0;
+        inputX = 0;
+        inputY = 0;
+    }
+
+    /**
+     * Returns the tick of the next event, or the end of the recording if
+     * all events were played.
+     */
+    public long getNextEventTick() {
+        return next < count ? ticks[next] : endTick;
+    }
+
+    /** Returns whether the session has reached the end of the recording. */
+    public boolean isFinished(long tick) {
+        return tick >= endTick;
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessor Methods
+    // -------------------------------------------------------------------------
+
+    /** Returns the horizontal input of the current tick: -1, 0 or 1. */
+    public int getInputX() {
+        return inputX;
+    }
+
+    /** Returns the vertical input of the current tick: -1, 0 or 1. */
+    public int getInputY() {
+        return inputY;
+    }
+
+    /** Returns the session seed. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the number of wandering students spawned with the level. */
+    public int getStudentCount() {
+        return students;
+    }
+
+    /** Returns the number of extra librarians spawned with the level. */
+    public int getLibrarianCount() {
+        return librarians;
+    }
+
+    /** Returns the number of ticks the recording covers. */
+    public long getEndTick() {
+        return endTick;
+    }
+
+    /** Returns the number of recorded events. */
+    public int getEventCount() {
+        return count;
+    }
+}
@@ -0,0 +1,205 @@
+package snackademy;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a game session into a compact binary replay, which {@link Replay}
+ * plays back.
+ * <p>
+ * File layout: a 4-byte magic number, a version byte, the session seed as a
+ * raw long, and the shelf count, speed, student count and extra librarian
+ * count as varints. Then follows a list of events, each a varint with the
+ * number of ticks since the previous event and a code byte:
+ * <ul>
+ *   <li>{@code 0..8}: the input changed to {@code (dx + 1) * 3 + (dy + 1)}</li>
+ *   <li>{@link #RESET}: the session was reset after a catch</li>
+ *   <li>{@link #LAYOUT}: the level was laid out, followed by width and height as varints</li>
+ *   <li>{@link #END}: the recording ends</li>
+ * </ul>
+ * The tick of an event is the number of ticks completed before it. Every tick
+ * has an input, but only changes are written, so a second of walking in one
+ * direction takes two bytes instead of 120 frames. Varints store 7 bits per
+ * byte, low bits first, with the high bit set on all but the last byte.
+ * <p>
+ * A recording must start before the first tick of the session.
+ */
+public class ReplayRecorder implements Closeable {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Magic number at the start of a replay file ("SNKR"). */
+    static final int MAGIC = 0x534E4B52;
+
+    /** Version of the file layout. */
+    static final int VERSION = 1;
+
+    /** Event codes after the nine input codes. */
+    static final int RESET = 9;
+    static final int LAYOUT = 10;
+    static final int END = 11;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Stream the events are written to. */
+    private final DataOutputStream out;
+
+    /** Tick of the last written event. */
+    private long lastTick;
+
+    /** Input code of the last written input event; starts as no movement. */
+    private int lastInput = inputCode(0, 0);
+
+    /** Whether {@link #END} was written. */
+    private boolean closed;
+
+    // -------------------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------------------
+
+    /**
+     * Starts a recording into a file, replacing the file if it exists.
+     *
+     * @param path the replay file
+     * @param world the session to record, before its first tick
+     * @param students number of wandering students spawned with the level
+     * @param librarians number of extra librarians spawned with the level
+     * @throws IOException if the file cannot be written
+     */
+    public ReplayRecorder(Path path, GameWorld world, int students, int librarians)
+        throws IOException {
+        this(Files.newOutputStream(path), world, students, librarians);
+    }
+
+    /**
+     * Starts a recording into a stream. If the world is already laid out, its
+     * size is recorded as the first layout.
+     *
+     * @param stream where the replay is written; closed by {@link #close()}
+     * @param world the session to record, before its first tick
+     * @param students number of wandering students spawned with the level
+     * @param librarians number of extra librarians spawned with the level
+     * @throws IOException if the header cannot be written
+     */
+    public ReplayRecorder(OutputStream stream, GameWorld world, int students, int librarians)
+        throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(world.getSeed());
+        writeVarLong(world.getShelves().size());
+        writeVarLong(world.getSpeed());
+        writeVarLong(students);
+        writeVarLong(librarians);
+
+        lastTick = world.getTickCount();
+        if (world.getWidth() > 0) {
+            layout(lastTick, world.getWidth(), world.getHeight());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Recording
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records the input of the tick after {@code tick} completed ticks.
+     * Nothing is written if the input did not change.
+     *
+     * @param tick number of ticks completed
+     * @param dx horizontal direction: -1, 0 or 1
+     * @param dy vertical direction: -1, 0 or 1
+     * @throws IOException if the event cannot be written
+     */
+    public void input(long tick, int dx, int dy) throws IOException {
+        int code = inputCode(dx, dy);
+        if (code != lastInput) {
+            lastInput = code;
+            event(tick, code);
+        }
+    }
+
+    /**
+     * Records a reset of the session after a catch.
+     *
+     * @param tick number of ticks completed
+     * @throws IOException if the event cannot be written
+     */
+    public void reset(long tick) throws IOException {
+        event(tick, RESET);
+    }
+
+    /**
+     * Records a new layout of the level.
+     *
+     * @param tick number of ticks completed
+     * @param width level width in pixels
+     * @param height level height in pixels
+     * @throws IOException if the event cannot be written
+     */
+    public void layout(long tick, int width, int height) throws IOException {
+        event(tick, LAYOUT);
+        writeVarLong(width);
+        writeVarLong(height);
+    }
+
+    /**
+     * Ends the recording at a tick and closes the stream.
+     *
+     * @param tick number of ticks completed when the session ended
+     * @throws IOException if the end cannot be written
+     */
+    public void finish(long tick) throws IOException {
+        if (!closed) {
+            event(tick, END);
+            closed = true;
+        }
+        out.close();
+    }
+
+    /**
+     * Ends the recording at the tick of its last event and closes the stream.
+     *
+     * @throws IOException if the end cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        finish(lastTick);
+    }
+
+    /** Writes an event code after the number of ticks since the previous event. */
+    private void event(long tick, int code) throws IOException {
+        if (closed) {
+            throw new IOException("Recording already finished");
+        }
+        if (tick < lastTick) {
+            throw new IOException("Event at tick " + tick + " before tick " + lastTick);
+        }
+        writeVarLong(tick - lastTick);
+        out.writeByte(code);
+        lastTick = tick;
+    }
+
+    /** Writes a non-negative number as a varint. */
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /** Returns the input code of a direction. */
+    static int inputCode(int dx, int dy) {
+        return (Integer.signum(dx) + 1) * 3 + Integer.signum(dy) + 1;
+    }
+}
@@ -0,0 +1,119 @@
+package snackademy;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeds of game sessions.
+ * <p>
+ * All randomness of a session, from the bookshelf layout to the librarian's
+ * timing and the students' wandering, is derived from one 64-bit seed by
+ * {@link GameWorld}. Playing a session again with the same seed, settings
+ * and input gives exactly the same game. The seed of the running game is
+ * shown in the performance HUD; starting the game with {@code --seed <seed>}
+ * makes every session use that seed.
+ */
+public final class SessionSeed {
+
+    // -------------------------------------------------------------------------
+    // Class Variables
+    // -------------------------------------------------------------------------
+
+    /** Source of new seeds when no fixed seed is set. */
+    private static final SplittableRandom SEEDS = new SplittableRandom();
+
+    /** Seed given on the command line, used for every session if set. */
+    private static Long fixedSeed;
+
+    private SessionSeed() {
+    }
+
+    // -------------------------------------------------------------------------
+    // Seeds
+    // -------------------------------------------------------------------------
+
+    /**
+     * Makes every following session use the given seed.
+     *
+     * @param seed the seed, or null to draw a new seed for each session
+     */
+    public static synchronized void setFixed(Long seed) {
+        fixedSeed = seed;
+    }
+
+    /**
+     * Returns the seed for a new session: the fixed seed if one is set,
+     * otherwise a new random seed.
+     *
+     * @return the session seed
+     */
+    public static synchronized long next() {
+        return fixedSeed != null ? fixedSeed : SEEDS.nextLong();
+    }
+
+    /**
+     * Reads the {@code --seed <seed>} option from command-line arguments.
+     *
+     * @param args the command-line arguments
+     * @return the seed, or null if the option is missing
+     * @throws IllegalArgumentException if the option has no valid seed
+     */
+    public static Long fromArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--seed")) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("--seed needs a value");
+                }
+                return parse(args[i + 1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the {@code --seed <seed>} option from command-line arguments.
+     *
+     * @param args the command-line arguments
+     * @return the other arguments, in order
+     */
+    public static String[] withoutSeed(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--seed")) {
+                int skip = Math.min(2, args.length - i);
+                String[] rest = new String[args.length - skip];
+                System.arraycopy(args, 0, rest, 0, i);
+                System.arraycopy(args, i + skip, rest, i, args.length - i - skip);
+                return rest;
+            }
+        }
+        return args;
+    }
+
+    /**
+     * Parses a seed written in decimal or as hexadecimal with a {@code 0x} prefix.
+     *
+     * @param text the seed text
+     * @return the seed
+     * @throws IllegalArgumentException if the text is not a 64-bit number
+     */
+    public static long parse(String text) {
+        String trimmed = text.trim();
+        try {
+            if (trimmed.startsWith("0x") || trimmed.startsWith("0X")) {
+                return Long.parseUnsignedLong(trimmed.substring(2), 16);
+            }
+            return Long.parseLong(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seed: " + text, e);
+        }
+    }
+
+    /**
+     * Formats a seed the way {@link #parse(String)} reads it back.
+     *
+     * @param seed the seed
+     * @return the seed in hexadecimal with a {@code 0x} prefix
+     */
+    public static String format(long seed) {
+        return String.format("0x%016x", seed);
+    }
+}
@@ -6,17 +6,30 @@ import javax.swing.*;
 
 /**
  * Settings screen to adjust game options such as player speed and bookshelf count.
- * Users can modify the player speed and the number of bookshelves in the game.
+ * Users can modify the player speed, the number of bookshelves, and the number
+ * of wandering students and extra librarians in the game.
  */
 public class SettingsScreen extends JPanel {
 
     private final GameFrame frame;
     private final JSlider speedSlider;
     private final JSlider bookshelfSlider;
+    private final JSlider studentSlider;
+    private final JSlider librarianSlider;
+    private final JCheckBox activeRenderingBox;
 
     /** Persist bookshelf count */
     public static int bookshelfCount = 10; // default
 
+    /** Persist number of wandering students */
+    public static int studentCount = 0; // default
+
+    /** Persist number of librarians besides the main one */
+    public static int librarianCount = 0; // default
+
+    /** Persist whether the game panel uses the active renderer */
+    public static boolean activeRendering = false; // default
+
     /**
      * Constructs a SettingsScreen.
      *
@@ -76,18 +89,68 @@ public class SettingsScreen extends JPanel {
         gbc.gridy = 2;
         add(bookshelfSlider, gbc);
 
+        // Student Label
+        JLabel studentLabel = new JLabel("Wandering Students:", SwingConstants.RIGHT);
+        studentLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        studentLabel.setForeground(Color.YELLOW);
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        add(studentLabel, gbc);
+
+        // Student Slider
+        studentSlider = new JSlider(0, 50, studentCount);
+        studentSlider.setMajorTickSpacing(10);
+        studentSlider.setPaintTicks(true);
+        studentSlider.setPaintLabels(true);
+        gbc.gridx = 1;
+        gbc.gridy = 3;
+        add(studentSlider, gbc);
+
+        // Extra Librarian Label
+        JLabel librarianLabel = new JLabel("Extra Librarians:", SwingConstants.RIGHT);
+        librarianLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        librarianLabel.setForeground(Color.YELLOW);
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        add(librarianLabel, gbc);
+
+        // Extra Librarian Slider
+        librarianSlider = new JSlider(0, 5, librarianCount);
+        librarianSlider.setMajorTickSpacing(1);
+        librarianSlider.setPaintTicks(true);
+        librarianSlider.setPaintLabels(true);
+        gbc.gridx = 1;
+        gbc.gridy = 4;
+        add(librarianSlider, gbc);
+
+        // Active Rendering Label
+        JLabel renderingLabel = new JLabel("Active Rendering:", SwingConstants.RIGHT);
+        renderingLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        renderingLabel.setForeground(Color.YELLOW);
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        add(renderingLabel, gbc);
+
+        // Active Rendering Checkbox
+        activeRenderingBox = new JCheckBox();
+        activeRenderingBox.setSelected(activeRendering);
+        activeRenderingBox.setOpaque(false);
+        gbc.gridx = 1;
+        gbc.gridy = 5;
+        add(activeRenderingBox, gbc);
+
         // Apply Button
         JButton applyButton = new JButton("Apply");
         styleButton(applyButton);
         gbc.gridx = 0;
-        gbc.gridy = 3;
+        gbc.gridy = 6;
         add(applyButton, gbc);
 
         // Back Button
         JButton backButton = new JButton("Back");
         styleButton(backButton);
         gbc.gridx = 1;
-        gbc.gridy = 3;
+        gbc.gridy = 6;
         add(backButton, gbc);
 
         // Button actions (parameter renamed for 2IP90)
@@ -111,6 +174,9 @@ public class SettingsScreen extends JPanel {
     private void applySettingsAction(ActionEvent event) {
         Player.setSpeed(speedSlider.getValue());
         bookshelfCount = bookshelfSlider.getValue();
+        studentCount = studentSlider.getValue();
+        librarianCount = librarianSlider.getValue();
+        activeRendering = activeRenderingBox.isSelected();
 
         // Styled message like CaughtScreen
         JDialog dialog = new JDialog(frame, "Settings Applied", true);
@@ -152,4 +218,19 @@ public class SettingsScreen extends JPanel {
     public static int getBookshelfCount() {
         return bookshelfCount;
     }
+
+    /** Returns the number of wandering students. */
+    public static int getStudentCount() {
+        return studentCount;
+    }
+
+    /** Returns the number of librarians besides the main one. */
+    public static int getLibrarianCount() {
+        return librarianCount;
+    }
+
+    /** Returns whether the game panel is drawn by the active renderer. */
+    public static boolean isActiveRendering() {
+        return activeRendering;
+    }
 }
@@ -0,0 +1,211 @@
+package snackademy;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+
+/**
+ * Headless model of a bookshelf: its place in the world and its hitbox.
+ * <p>
+ * The hitbox is a convex quadrilateral around the foot of the shelf. It is
+ * updated in place whenever the shelf is moved, so collision checks never
+ * allocate. The Swing {@link Bookshelf} only draws the shelf at the bounds
+ * of this model.
+ */
+public class ShelfModel {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    // Offsets relative to the top-left corner of the bookshelf image
+    // (the hitbox is a convex quadrilateral)
+    static final int[] X_OFFSETS = {52, 165, 135, 17};
+    static final int[] Y_OFFSETS = {115, 175, 190, 130};
+
+    /** Winding of the hitbox corners: 1 or -1, the sign of its area in screen coordinates. */
+    private static final int WINDING = winding();
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    /** Area covered by the bookshelf image. */
+    private final Rectangle bounds = new Rectangle();
+
+    /** Polygon representing the hitbox, updated in place when the shelf moves. */
+    private final Polygon hitbox = new Polygon(
+        new int[X_OFFSETS.length], new int[Y_OFFSETS.length], X_OFFSETS.length
+    );
+
+    // Bounding box of the hitbox, kept next to the polygon for quick rejects
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+
+    // -------------------------------------------------------------------------
+    // Position
+    // -------------------------------------------------------------------------
+
+    /**
+     * Moves and resizes the bookshelf and updates its hitbox.
+     *
+     * @param x X position of the bookshelf
+     * @param y Y position of the bookshelf
+     * @param width width of the bookshelf image
+     * @param height height of the bookshelf image
+     */
+    public void setBounds(int x, int y, int width, int height) {
+        bounds.setBounds(x, y, width, height);
+
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < X_OFFSETS.length; i++) {
+            int px = x + X_OFFSETS[i];
+            int py = y + Y_OFFSETS[i];
+            hitbox.xpoints[i] = px;
+            hitbox.ypoints[i] = py;
+            minX = Math.min(minX, px);
+            minY = Math.min(minY, py);
+            maxX = Math.max(maxX, px);
+            maxY = Math.max(maxY, py);
+        }
+        hitbox.invalidate(); // Drop the polygon's cached bounds
+    }
+
+    /**
+     * Returns the area covered by the bookshelf image. The rectangle is
+     * shared and updated in place; callers must not modify it.
+     *
+     * @return the bookshelf bounds
+     */
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    // -------------------------------------------------------------------------
+    // Hitbox
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the polygon hitbox at the current position. The polygon is
+     * shared and updated in place; callers must not modify it.
+     *
+     * @return Polygon representing the bookshelf hitbox
+     */
+    public Polygon getHitbox() {
+        return hitbox;
+    }
+
+    /**
+     * Checks whether the hitbox overlaps the interior of a rectangle.
+     * <p>
+     * Uses the separating axis test for the convex hitbox, so unlike
+     * {@link Polygon#intersects(java.awt.geom.Rectangle2D)} it allocates nothing.
+     *
+     * @param r the rectangle to test
+     * @return true if the hitbox and the rectangle overlap
+     */
+    public boolean intersects(Rectangle r) {
+        if (r.width <= 0 || r.height <= 0) {
+            return false;
+        }
+
+        // Axes of the rectangle: compare bounding boxes
+        int rx2 = r.x + r.width;
+        int ry2 = r.y + r.height;
+        if (rx2 <= minX || r.x >= maxX || ry2 <= minY || r.y >= maxY) {
+            return false;
+        }
+
+        // Axes of the hitbox: the normal of every edge
+        int[] xs = hitbox.xpoints;
+        int[] ys = hitbox.ypoints;
+        int n = X_OFFSETS.length;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            long nx = ys[i] - ys[j];
+            long ny = xs[j] - xs[i];
+
+            long polyMin = Long.MAX_VALUE;
+            long polyMax = Long.MIN_VALUE;
+            for (int k = 0; k < n; k++) {
+                long p = nx * xs[k] + ny * ys[k];
+                polyMin = Math.min(polyMin, p);
+                polyMax = Math.max(polyMax, p);
+            }
+
+            // Project the rectangle: pick the corners extreme along the normal
+            long rectMin = nx * (nx >= 0 ? r.x : rx2) + ny * (ny >= 0 ? r.y : ry2);
+            long rectMax = nx * (nx >= 0 ? rx2 : r.x) + ny * (ny >= 0 ? ry2 : r.y);
+
+            if (rectMax <= polyMin || rectMin >= polyMax) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a line segment passes through the interior of the hitbox.
+     * <p>
+     * Clips the segment against the half-plane of every edge (Cyrus-Beck);
+     * the segment crosses the hitbox if a part of it is left. A segment that
+     * only touches the boundary does not count. Allocates nothing.
+     *
+     * @param x0 x coordinate of the start
+     * @param y0 y coordinate of the start
+     * @param x1 x coordinate of the end
+     * @param y1 y coordinate of the end
+     * @return true if part of the segment lies inside the hitbox
+     */
+    public boolean intersectsSegment(double x0, double y0, double x1, double y1) {
+        if (Math.max(x0, x1) <= minX || Math.min(x0, x1) >= maxX
+            || Math.max(y0, y1) <= minY || Math.min(y0, y1) >= maxY) {
+            return false;
+        }
+
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double enter = 0;
+        double exit = 1;
+        int[] xs = hitbox.xpoints;
+        int[] ys = hitbox.ypoints;
+        int n = X_OFFSETS.length;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            double ex = xs[j] - xs[i];
+            double ey = ys[j] - ys[i];
+
+            // Inside this edge where WINDING * cross(edge, point - corner) > 0
+            double distance = WINDING * (ex * (y0 - ys[i]) - ey * (x0 - xs[i]));
+            double rate = WINDING * (ex * dy - ey * dx);
+            if (rate == 0) {
+                if (distance <= 0) {
+                    return false; // Parallel to the edge and outside it
+                }
+            } else if (rate > 0) {
+                enter = Math.max(enter, -distance / rate);
+            } else {
+                exit = Math.min(exit, -distance / rate);
+            }
+            if (enter >= exit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the sign of the area enclosed by the hitbox offsets. */
+    private static int winding() {
+        long area = 0;
+        int n = X_OFFSETS.length;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            area += (long) X_OFFSETS[i] * Y_OFFSETS[j] - (long) X_OFFSETS[j] * Y_OFFSETS[i];
+        }
+        return area >= 0 ? 1 : -1;
+    }
+}
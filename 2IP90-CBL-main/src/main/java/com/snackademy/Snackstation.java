@@ -21,18 +21,14 @@ public class Snackstation {
      * @param y Y coordinate
      */
     public Snackstation(int x, int y) {
-        icon = loadIcon("/snackademy/resources/snackstation.png");
+        icon = loadIcon("snackstation.png");
         label = new JLabel(icon);
-        label.setBounds(x, y, DEFAULT_SIZE, DEFAULT_SIZE);
+        setBounds(x, y, DEFAULT_SIZE, DEFAULT_SIZE);
     }
 
-    /** Loads an ImageIcon from the given resource path. */
-    private ImageIcon loadIcon(String path) {
-        java.net.URL url = getClass().getResource(path);
-        if (url == null) {
-            throw new IllegalStateException("Snackstation image not found: " + path);
-        }
-        return new ImageIcon(url);
+    /** Wraps the shared decoded image from the AssetManager in an ImageIcon. */
+    private ImageIcon loadIcon(String name) {
+        return new ImageIcon(AssetManager.getImage(name));
     }
 
     /**
@@ -44,6 +40,18 @@ public class Snackstation {
         return label;
     }
 
+    /**
+     * Moves and resizes the Snackstation.
+     *
+     * @param x      X coordinate
+     * @param y      Y coordinate
+     * @param width  new width
+     * @param height new height
+     */
+    public void setBounds(int x, int y, int width, int height) {
+        label.setBounds(x, y, width, height);
+    }
+
     /**
      * Returns a scaled ImageIcon for dynamic resizing.
      *
@@ -5,8 +5,6 @@ import java.awt.Font;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
-import java.util.ArrayList;
-import java.util.List;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -19,7 +17,9 @@ import javax.swing.SwingConstants;
 public class StartMenuScreen extends JPanel {
 
     public final GameFrame frame;
-    public final List<ScoreEntry> leaderboard = new ArrayList<>();
+
+    /** Ranked scores; replaced by the stored ones once they are loaded. */
+    public LeaderboardIndex leaderboard = new LeaderboardIndex();
 
     /**
      * Create a start menu screen.
@@ -127,62 +127,7 @@ public class StartMenuScreen extends JPanel {
      * Show the leaderboard with names and scores.
      */
     public void showLeaderboard() {
-        JPanel lbPanel = new JPanel();
-        lbPanel.setLayout(new GridBagLayout());
-        lbPanel.setBackground(new Color(200, 0, 0));
-
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(10, 10, 10, 10);
-        gbc.gridx = 0;
-        gbc.gridy = 0;
-        gbc.fill = GridBagConstraints.HORIZONTAL;
-
-        JLabel titleLabel = new JLabel("Leaderboard", SwingConstants.CENTER);
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 48));
-        titleLabel.setForeground(Color.YELLOW);
-        lbPanel.add(titleLabel, gbc);
-
-        gbc.gridy = 1;
-        JPanel scoresPanel = new JPanel();
-        scoresPanel.setBackground(new Color(200, 0, 0));
-        scoresPanel.setLayout(new GridBagLayout());
-
-        if (leaderboard.isEmpty()) {
-            JLabel emptyLabel = new JLabel("No saved progress yet!", SwingConstants.CENTER);
-            emptyLabel.setFont(new Font("Arial", Font.BOLD, 24));
-            emptyLabel.setForeground(Color.YELLOW);
-            scoresPanel.add(emptyLabel);
-        } else {
-            leaderboard.sort(null); // Sort descending by score
-            int rank = 1;
-            for (ScoreEntry entry : leaderboard) {
-                JLabel scoreLabel = new JLabel(
-                    rank + ". " + entry.getName() + ": "
-                    + entry.getScore() + " snacks delivered",
-                    SwingConstants.CENTER
-                );
-                scoreLabel.setFont(new Font("Arial", Font.BOLD, 24));
-                scoreLabel.setForeground(Color.YELLOW);
-                GridBagConstraints gbcScore = new GridBagConstraints();
-                gbcScore.gridy = rank - 1;
-                gbcScore.gridx = 0;
-                gbcScore.insets = new Insets(5, 5, 5, 5);
-                scoresPanel.add(scoreLabel, gbcScore);
-                rank++;
-            }
-        }
-
-        lbPanel.add(scoresPanel, gbc);
-
-        gbc.gridy = 2;
-        JButton backButton = new JButton("Back to Menu");
-        backButton.setFont(new Font("Arial", Font.BOLD, 24));
-        backButton.setBackground(Color.YELLOW);
-        backButton.setForeground(Color.RED);
-        backButton.setFocusPainted(false);
-        backButton.addActionListener(e -> frame.showStartMenu());
-        lbPanel.add(backButton, gbc);
-
+        LeaderboardScreen lbPanel = new LeaderboardScreen(frame, leaderboard);
         frame.setContentPane(lbPanel);
         frame.revalidate();
         frame.repaint();
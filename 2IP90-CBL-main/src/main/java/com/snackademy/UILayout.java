@@ -4,13 +4,19 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import javax.swing.*;
 
 /**
  * UILayout sets up the main game panel for Snackademy.
  * Contains player, librarian, desk, snackstation, movable text, snack counter,
  * back button with save feature, and debug overlay.
+ * <p>
+ * The panel is a view over a headless {@link GameWorld}: the world decides
+ * where everything is, and the components are moved to match it.
+ * <p>
+ * Changes made during a tick are collected in a {@link DirtyRegion} and
+ * repainted together by {@link #repaintDirty()}, so a step of the player only
+ * repaints the area around the player and not the whole scene.
  */
 public class UILayout extends JPanel {
 
@@ -19,23 +25,58 @@ public class UILayout extends JPanel {
     private final Desk desk;
     private final Snackstation snackstation;
     private final List<Bookshelf> bookshelves = new ArrayList<>();
+    private final GameWorld world;
     private final JLabel movableText;
     private final JLabel snackCounterLabel;
     private final GamePanel gamePanel;
     private final JButton backButton;
     private final DebugOverlayPanel debugOverlay;
-    private final Random random = new Random();
+    private final PerformanceMonitor performanceMonitor = new PerformanceMonitor();
+    private final DirtyRegion dirtyRegion = new DirtyRegion();
+
+    /** Whether a repaint of game changes was requested since the last recorded frame. */
+    private boolean framePending;
+    private final RenderOrder renderOrder;
+    private final ActiveRenderer activeRenderer; // null unless active rendering is enabled
     private int snackCounter = 0;
 
+    /** Number of students and extra librarians spawned with the level. */
+    private final int studentCount;
+    private final int librarianCount;
+
+    /** Whether the level keeps its size when the panel is resized, as in a replay. */
+    private boolean levelSizeFixed;
+
     private static final int LABEL_HEIGHT = 40;
 
     /**
-     * Constructs the main UILayout panel.
+     * Constructs the main UILayout panel for a new session with the current
+     * settings and a new session seed.
      */
     public UILayout() {
+        this(
+            new GameWorld(
+                SettingsScreen.getBookshelfCount(), Player.getSpeed(), SessionSeed.next()
+            ),
+            SettingsScreen.getStudentCount(), SettingsScreen.getLibrarianCount()
+        );
+    }
+
+    /**
+     * Constructs the main UILayout panel as a view over the given session.
+     *
+     * @param world the simulation to show, not laid out yet
+     * @param students number of wandering students to spawn with the level
+     * @param librarians number of extra librarians to spawn with the level
+     */
+    public UILayout(GameWorld world, int students, int librarians) {
         setLayout(new BorderLayout());
         setBackground(Color.DARK_GRAY);
 
+        this.world = world;
+        this.studentCount = students;
+        this.librarianCount = librarians;
+
         player = new Player();
         librarian = new Librarian(0, 0);
         desk = new Desk(0, 0);
@@ -60,8 +101,7 @@ public class UILayout extends JPanel {
         gamePanel.add(snackCounterLabel);
 
         // Bookshelves
-        int numShelves = SettingsScreen.getBookshelfCount();
-        for (int i = 0; i < numShelves; i++) {
+        for (int i = 0; i < world.getShelves().size(); i++) {
             Bookshelf shelf = new Bookshelf(0, 0);
             bookshelves.add(shelf);
             gamePanel.add(shelf.getLabel());
@@ -69,15 +109,27 @@ public class UILayout extends JPanel {
 
         add(gamePanel, BorderLayout.CENTER);
 
-        debugOverlay = new DebugOverlayPanel(player, bookshelves);
+        debugOverlay = new DebugOverlayPanel(world, performanceMonitor);
         debugOverlay.setBounds(0, 0, getWidth(), getHeight());
         gamePanel.add(debugOverlay);
 
         backButton = createBackButton();
         gamePanel.add(backButton);
 
+        List<JComponent> layered = new ArrayList<>();
+        for (Bookshelf shelf : bookshelves) {
+            layered.add(shelf.getLabel());
+        }
+        layered.add(player.getLabel());
+        layered.add(desk.getLabel());
+        layered.add(snackstation.getLabel());
+        renderOrder = new RenderOrder(layered);
+
+        activeRenderer = SettingsScreen.isActiveRendering() ? createActiveRenderer() : null;
+
         gamePanel.setFocusable(true);
         gamePanel.requestFocusInWindow();
+        bindHudToggle();
 
         addComponentListener(new ComponentAdapter() {
             @Override
@@ -89,6 +141,47 @@ public class UILayout extends JPanel {
         SwingUtilities.invokeLater(this::positionObjects);
     }
 
+    /**
+     * Creates the active renderer and hides the sprite labels it replaces.
+     * The renderer is added last, so it sits below the text labels and button.
+     *
+     * @return the ActiveRenderer for the game panel
+     */
+    private ActiveRenderer createActiveRenderer() {
+        JLabel[] sprites = new JLabel[bookshelves.size() + 3];
+        for (int i = 0; i < bookshelves.size(); i++) {
+            sprites[i] = bookshelves.get(i).getLabel();
+        }
+        sprites[bookshelves.size()] = player.getLabel();
+        sprites[bookshelves.size() + 1] = desk.getLabel();
+        sprites[bookshelves.size() + 2] = snackstation.getLabel();
+
+        for (JLabel sprite : sprites) {
+            sprite.setVisible(false);
+        }
+        librarian.getLabel().setVisible(false);
+        debugOverlay.setVisible(false);
+
+        ActiveRenderer renderer = new ActiveRenderer(
+            gamePanel.getBackgroundCache(), sprites, librarian.getLabel(), debugOverlay,
+            performanceMonitor
+        );
+        gamePanel.add(renderer);
+        return renderer;
+    }
+
+    /** Binds F3 to showing and hiding the performance HUD. */
+    private void bindHudToggle() {
+        gamePanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+            .put(KeyStroke.getKeyStroke("F3"), "toggleHud");
+        gamePanel.getActionMap().put("toggleHud", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                debugOverlay.setHudVisible(!debugOverlay.isHudVisible());
+            }
+        });
+    }
+
     /**
      * Styles a JLabel with font, colors, border, and alignment.
      *
@@ -142,67 +235,70 @@ public class UILayout extends JPanel {
     }
 
     /**
-     * Positions all game objects dynamically based on panel size.
+     * Lays out the simulation for the panel size and positions all game
+     * objects at their simulated places. If the level size is fixed, only
+     * the objects are positioned again.
      */
     private void positionObjects() {
+        if (levelSizeFixed) {
+            showLevel();
+        } else {
+            layoutLevel(gamePanel.getWidth(), gamePanel.getHeight());
+        }
+    }
+
+    /**
+     * Lays out the simulation for a level size, spawns the students and
+     * extra librarians the first time, and positions all game objects.
+     *
+     * @param w level width in pixels
+     * @param h level height in pixels
+     */
+    public void layoutLevel(int w, int h) {
+        world.layout(w, h);
+        if (world.getNpcs().size() == 0) {
+            world.spawnNpcs(studentCount, librarianCount);
+        }
+        showLevel();
+    }
+
+    /**
+     * Keeps the level at the size of the last {@link #layoutLevel(int, int)}
+     * when the panel is resized, so a replay is not laid out again.
+     *
+     * @param fixed whether the level size is fixed
+     */
+    public void setLevelSizeFixed(boolean fixed) {
+        levelSizeFixed = fixed;
+    }
+
+    /** Positions all game objects at their simulated places. */
+    private void showLevel() {
         int w = gamePanel.getWidth();
         int h = gamePanel.getHeight();
 
         // Snackstation
-        int snackW = w / 8;
-        int snackH = h / 4;
-        int snackX = 10;
-        int snackY = h / 2 - snackH / 2;
-        snackstation.getLabel().setBounds(snackX, snackY, snackW, snackH);
-        snackstation.getLabel().setIcon(snackstation.getScaledIcon(snackW, snackH));
+        Rectangle snack = world.getSnackstation();
+        snackstation.setBounds(snack.x, snack.y, snack.width, snack.height);
+        snackstation.getLabel().setIcon(snackstation.getScaledIcon(snack.width, snack.height));
 
-        player.resetPosition();
-        player.moveTo(snackX, snackY);
+        syncPlayer();
 
         // Desk
-        int deskW = w / 8;
-        int deskH = h / 4;
-        int deskX = w - deskW - 10;
-        int deskY = h / 2 - deskH / 2;
-        desk.getLabel().setBounds(deskX, deskY, deskW, deskH);
-        desk.getLabel().setIcon(desk.getScaledIcon(deskW, deskH));
+        Rectangle deskBounds = world.getDesk();
+        desk.setBounds(deskBounds.x, deskBounds.y, deskBounds.width, deskBounds.height);
+        desk.getLabel().setIcon(desk.getScaledIcon(deskBounds.width, deskBounds.height));
 
         // Librarian
-        int libW = w / 8;
-        int libH = h / 4;
-        int libX = w / 2 - libW / 2;
-        int libY = 4 * h / 5 - libH / 2;
-        librarian.getLabel().setBounds(libX, libY, libW, libH);
+        Rectangle lib = world.getLibrarianBounds();
+        librarian.getLabel().setBounds(lib);
         librarian.getLabel().setIcon(
-            librarian.getScaledIcon(librarian.getCurrentStateName(), libW, libH)
+            librarian.getScaledIcon(librarian.getCurrentStateName(), lib.width, lib.height)
         );
 
         // Bookshelves
-        int marginX = 150;
-        int sw = w - 2 * marginX;
-        int bsW = w / 8;
-        int bsH = h / 4;
-        int marginY = bsH / 14;
-        int spacing = sw / (bookshelves.size() + 1);
-
-        int[] yPosition = new int[bookshelves.size()];
         for (int i = 0; i < bookshelves.size(); i++) {
-            yPosition[i] = marginY + (h - bsH) * (i + 1) / (bookshelves.size() + 1);
-        }
-
-        for (int i = yPosition.length - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            int t = yPosition[i];
-            yPosition[i] = yPosition[j];
-            yPosition[j] = t;
-        }
-
-        for (int i = 0; i < bookshelves.size(); i++) {
-            int bsX = marginX + spacing * (i + 1) - bsW / 2;
-            int bsY = yPosition[i];
-            Bookshelf shelf = bookshelves.get(i);
-            shelf.getLabel().setBounds(bsX, bsY, bsW, bsH);
-            shelf.getLabel().setIcon(shelf.getScaledIcon(bsW, bsH));
+            bookshelves.get(i).showAt(world.getShelves().get(i));
         }
 
         movableText.setBounds(50, 20, 1200, LABEL_HEIGHT);
@@ -213,29 +309,86 @@ public class UILayout extends JPanel {
         backButton.setBounds(20, h - btnH - 20, btnW, btnH);
 
         debugOverlay.setBounds(0, 0, gamePanel.getWidth(), gamePanel.getHeight());
+        if (activeRenderer != null) {
+            activeRenderer.setBounds(0, 0, gamePanel.getWidth(), gamePanel.getHeight());
+        }
+
+        applyLayers();
+        repaintDirty();
+    }
+
+    /**
+     * Moves the player sprite to its simulated position and snack state, and
+     * marks its old and new area as dirty. The margin covers the hitbox
+     * outline that the debug overlay draws on the edge of the sprite.
+     */
+    public void syncPlayer() {
+        JLabel label = player.getLabel();
+        dirtyRegion.add(label.getX() - 1, label.getY() - 1,
+            label.getWidth() + 2, label.getHeight() + 2);
+        player.moveTo(world.getPlayerX(), world.getPlayerY());
+        player.setHasSnack(world.hasSnack());
+        dirtyRegion.add(label.getX() - 1, label.getY() - 1,
+            label.getWidth() + 2, label.getHeight() + 2);
+    }
 
-        updateLayer();
+    /**
+     * Marks the area of every student and extra librarian as dirty. The
+     * margin covers where they were in the previous tick.
+     */
+    public void markNpcsDirty() {
+        EntityRegistry npcs = world.getNpcs();
+        for (int i = 0; i < npcs.size(); i++) {
+            dirtyRegion.add((int) npcs.getX(i) - 2, (int) npcs.getY(i) - 2,
+                npcs.getWidth(i) + 4, npcs.getHeight(i) + 4);
+        }
     }
 
     /**
-     * Updates the Z-order of layered components.
+     * Repaints the areas that changed since the last call. In active rendering
+     * mode the renderer draws whole frames, so the region is only cleared.
+     */
+    public void repaintDirty() {
+        if (activeRenderer != null) {
+            dirtyRegion.clear();
+            return;
+        }
+        if (dirtyRegion.flush(gamePanel)) {
+            framePending = true;
+        }
+    }
+
+    /**
+     * Updates the Z-order after the player moved. Only the player is moved
+     * within the kept {@link RenderOrder}, and Swing is only told when the
+     * order actually changed. Does nothing in active rendering mode, where
+     * the renderer sorts itself.
      */
     public void updateLayer() {
-        List<JComponent> layeredComponents = new ArrayList<>();
-        for (Bookshelf shelf : bookshelves) {
-            layeredComponents.add(shelf.getLabel());
+        if (activeRenderer != null) {
+            return;
         }
 
-        layeredComponents.add(player.getLabel());
-        Component librarianComponent = librarian.getLabel();
-        layeredComponents.add(desk.getLabel());
-        layeredComponents.add(snackstation.getLabel());
+        int index = renderOrder.update(player.getLabel());
+        if (index >= 0) {
+            // Moving one component shifts the ones in between along with it
+            gamePanel.setComponentZOrder(player.getLabel(), index + 1);
+        }
+    }
 
-        layeredComponents.sort((a, b) -> Integer.compare(b.getY(), a.getY()));
-        gamePanel.setComponentZOrder(librarianComponent, 0);
+    /**
+     * Sorts all layered components again and applies the whole Z-order:
+     * the librarian on top, then the sprites front to back.
+     */
+    private void applyLayers() {
+        if (activeRenderer != null) {
+            return;
+        }
 
-        for (int i = 1; i < layeredComponents.size() + 1; i++) {
-            gamePanel.setComponentZOrder(layeredComponents.get(i - 1), i);
+        renderOrder.sortAll();
+        gamePanel.setComponentZOrder(librarian.getLabel(), 0);
+        for (int i = 0; i < renderOrder.size(); i++) {
+            gamePanel.setComponentZOrder(renderOrder.get(i), i + 1);
         }
     }
 
@@ -250,9 +403,7 @@ public class UILayout extends JPanel {
             SaveProgressScreen saveDialog = new SaveProgressScreen(gameFrame, snackCounter);
             String name = saveDialog.getPlayerName();
             if (name != null && !name.isEmpty() && gameFrame.frameStartMenu != null) {
-                gameFrame.frameStartMenu.leaderboard.add(
-                    new ScoreEntry(name, snackCounter)
-                );
+                gameFrame.saveScore(new ScoreEntry(name, snackCounter));
             }
             gameFrame.showStartMenu();
         }
@@ -280,31 +431,80 @@ public class UILayout extends JPanel {
         return bookshelves;
     }
 
+    /** Returns the simulation this layout is a view of. */
+    public GameWorld getWorld() {
+        return world;
+    }
+
+    /** Returns the number of wandering students spawned with the level. */
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    /** Returns the number of extra librarians spawned with the level. */
+    public int getLibrarianCount() {
+        return librarianCount;
+    }
+
     public DebugOverlayPanel getDebugOverlay() {
         return debugOverlay;
     }
 
+    /** Returns the monitor collecting the metrics of the performance HUD. */
+    public PerformanceMonitor getPerformanceMonitor() {
+        return performanceMonitor;
+    }
+
     public JPanel getGamePanel() {
         return gamePanel;
     }
 
+    /** Returns the active renderer, or null when Swing draws the sprites. */
+    public ActiveRenderer getActiveRenderer() {
+        return activeRenderer;
+    }
+
     /**
      * Inner class for the game panel.
      */
     private class GamePanel extends JPanel {
 
-        private final Image background;
+        private final BackgroundCache background;
 
         public GamePanel() {
-            background = new ImageIcon(
-                getClass().getResource("/snackademy/resources/Background.png")
-            ).getImage();
+            background = new BackgroundCache(AssetManager.getImage("Background.png"));
+        }
+
+        /** Returns the cache holding the background at display resolution. */
+        public BackgroundCache getBackgroundCache() {
+            return background;
+        }
+
+        /**
+         * Paints the panel with all its children. Records a frame only if the
+         * paint shows a change of the game, not for a refresh of the HUD alone.
+         */
+        @Override
+        public void paint(Graphics g) {
+            long start = System.nanoTime();
+            super.paint(g);
+            if (framePending) {
+                framePending = false;
+                performanceMonitor.recordFrame(System.nanoTime() - start);
+            }
         }
 
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            g.drawImage(background, 0, 0, getWidth(), getHeight(), this);
+            if (getWidth() <= 0 || getHeight() <= 0) {
+                return;
+            }
+            // Blit the cached copy 1:1; it is only rescaled when the size changes
+            g.drawImage(
+                background.getImage(getGraphicsConfiguration(), getWidth(), getHeight()),
+                0, 0, this
+            );
         }
     }
 }
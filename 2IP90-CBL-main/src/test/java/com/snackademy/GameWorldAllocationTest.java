@@ -0,0 +1,160 @@
+package snackademy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the per-tick path of the simulation allocates nothing: a tick
+ * with the player moving, and the bookshelf collision checks.
+ * <p>
+ * A librarian transition publishes a new immutable
+ * {@link LibrarianModel.Snapshot}, a few times per minute of play; the ticks
+ * with a transition are left out of the tick measurement.
+ * <p>
+ * The JIT compiler can still be busy after the warm-up, and code that runs
+ * in the interpreter for a moment after a deoptimization allocates what the
+ * compiled code does not. So each measurement is repeated a few times, and
+ * at least one must allocate nothing. A real allocation in the measured code
+ * shows up in every round.
+ */
+public class GameWorldAllocationTest {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Calls made before measuring, so the hot methods are compiled. */
+    private static final int WARMUP = 200_000;
+
+    /** Calls measured per round. */
+    private static final int MEASURED = 100_000;
+
+    /** Rounds measured at most. */
+    private static final int ROUNDS = 5;
+
+    /** Ticks the player walks in one direction before turning around. */
+    private static final int WALK_TICKS = 30;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    private com.sun.management.ThreadMXBean threads;
+    private GameWorld world;
+
+    /** Positions moved to by the collision checks. */
+    private int probeX;
+
+    @BeforeEach
+    public void setUp() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        world = new GameWorld(10, 5, 42L);
+        world.layout(HeadlessSimulation.WIDTH, HeadlessSimulation.HEIGHT);
+    }
+
+    // -------------------------------------------------------------------------
+    // Tests
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void tickWithMovingPlayerAllocatesNothing() {
+        runTicks(WARMUP);
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && allocated > 0; round++) {
+            allocated = measureTicks();
+        }
+        assertEquals(0, allocated, "bytes allocated over " + MEASURED + " ticks");
+    }
+
+    @Test
+    public void collidesWithShelfAllocatesNothing() {
+        runCollisionChecks(WARMUP);
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && allocated > 0; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            int hits = runCollisionChecks(MEASURED);
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            assertTrue(hits > 0, "no check touched a bookshelf");
+        }
+        assertEquals(0, allocated, "bytes allocated over " + MEASURED + " collision checks");
+    }
+
+    // -------------------------------------------------------------------------
+    // Helper Methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Measures one round of ticks, leaving out the ticks with a librarian
+     * transition.
+     *
+     * @return the bytes allocated by the other ticks
+     */
+    private long measureTicks() {
+        long allocated = 0;
+        int moves = 0;
+        int transitions = 0;
+        for (int i = 0; i < MEASURED; i++) {
+            long sequence = world.getLibrarian().getSnapshot().sequence;
+            long before = threads.getCurrentThreadAllocatedBytes();
+            if (step(i)) {
+                moves++;
+            }
+            long bytes = threads.getCurrentThreadAllocatedBytes() - before;
+            if (world.getLibrarian().getSnapshot().sequence == sequence) {
+                allocated += bytes;
+            } else {
+                transitions++;
+            }
+        }
+
+        assertTrue(moves > 0, "the player did not move");
+        assertTrue(transitions * 100 < MEASURED, "more than 1% of the ticks had a transition");
+        return allocated;
+    }
+
+    /** Runs ticks without measuring them. */
+    private void runTicks(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            step(i);
+        }
+    }
+
+    /**
+     * Runs one tick with the player walking back and forth next to the snack
+     * station, where no bookshelf stands. Resets the session if the player
+     * got caught.
+     *
+     * @return true if the player moved
+     */
+    private boolean step(int i) {
+        if (world.isCaught()) {
+            world.reset();
+        }
+        world.setInput((i / WALK_TICKS) % 2 == 0 ? 1 : -1, 0);
+        return world.tick();
+    }
+
+    /**
+     * Tests the player's feet at positions sweeping across the level.
+     *
+     * @return the number of positions that touch a bookshelf
+     */
+    private int runCollisionChecks(int checks) {
+        int hits = 0;
+        for (int i = 0; i < checks; i++) {
+            probeX = (probeX + 7) % HeadlessSimulation.WIDTH;
+            int y = (i * 13) % HeadlessSimulation.HEIGHT;
+            if (world.collidesWithShelf(probeX, y)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,177 @@
+package snackademy;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks which scores survive when the leaderboard log is damaged: a torn
+ * final record, a corrupt record in the middle, a corrupt final record and a
+ * missing header.
+ * <p>
+ * Every entry is named {@code pNN} with score NN, so each record takes
+ * {@link #RECORD_SIZE} bytes and the offset of any record is known.
+ */
+public class LeaderboardStoreTest {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Entries written to the log before it is damaged. */
+    private static final int ENTRIES = 100;
+
+    /** Size of the file header. */
+    private static final int HEADER_SIZE = 4;
+
+    /** Size of one record: length, name ("pNN" as modified UTF-8), score and checksum. */
+    private static final int RECORD_SIZE = 4 + (2 + 3) + 4 + 4;
+
+    // -------------------------------------------------------------------------
+    // Instance Variables
+    // -------------------------------------------------------------------------
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = dir.resolve("leaderboard.log");
+        LeaderboardStore store = LeaderboardStore.open(file, entry -> { });
+        for (int i = 0; i < ENTRIES; i++) {
+            store.append(new ScoreEntry(String.format("p%02d", i), i));
+        }
+        store.close();
+        assertEquals(HEADER_SIZE + ENTRIES * RECORD_SIZE, Files.size(file));
+    }
+
+    // -------------------------------------------------------------------------
+    // Tests
+    // -------------------------------------------------------------------------
+
+    @Test
+    public void intactLogKeepsEverything() throws IOException {
+        assertEquals(scoresExcept(-1), reopen());
+    }
+
+    @Test
+    public void tornFinalRecordIsCutOff() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertEquals(scoresExcept(ENTRIES - 1), reopen());
+        assertEquals(HEADER_SIZE + (ENTRIES - 1) * RECORD_SIZE, Files.size(file));
+        assertFalse(Files.exists(dir.resolve("leaderboard.log.corrupt")));
+    }
+
+    @Test
+    public void corruptMiddleRecordIsSkipped() throws IOException {
+        flipByte(200); // Inside the payload of record 11
+
+        List<Integer> expected = scoresExcept(11);
+        assertEquals(expected, reopen());
+        assertEquals(HEADER_SIZE + ENTRIES * RECORD_SIZE, Files.size(file));
+
+        // New scores still go after the damaged record and are read back
+        LeaderboardStore store = LeaderboardStore.open(file, entry -> { });
+        store.append(new ScoreEntry("new", 1000));
+        store.close();
+        expected.add(1000);
+        assertEquals(expected, reopen());
+    }
+
+    @Test
+    public void corruptMiddleLengthIsSkipped() throws IOException {
+        flipByte(HEADER_SIZE + 40 * RECORD_SIZE); // Length field of record 40
+
+        assertEquals(scoresExcept(40), reopen());
+    }
+
+    @Test
+    public void damageFarIntoLargeLogIsSkipped() throws IOException {
+        int total = 20_000; // About 340 KB, more than the replay reads at once
+        LeaderboardStore store = LeaderboardStore.open(file, entry -> { });
+        for (int i = ENTRIES; i < total; i++) {
+            store.append(new ScoreEntry(String.format("p%02d", i % 100), i));
+        }
+        store.close();
+        int damaged = 15_000;
+        flipByte(HEADER_SIZE + damaged * RECORD_SIZE + 6);
+
+        List<Integer> scores = reopen();
+        assertEquals(total - 1, scores.size());
+        assertFalse(scores.contains(damaged));
+        assertEquals(total - 1, (int) scores.get(scores.size() - 1));
+    }
+
+    @Test
+    public void corruptFinalRecordIsMovedToSideFile() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        flipByte(bytes.length - 6); // Score of the last record
+
+        assertEquals(scoresExcept(ENTRIES - 1), reopen());
+        assertEquals(HEADER_SIZE + (ENTRIES - 1) * RECORD_SIZE, Files.size(file));
+
+        byte[] tail = Files.readAllBytes(dir.resolve("leaderboard.log.corrupt"));
+        assertEquals(RECORD_SIZE, tail.length);
+        assertEquals((byte) (bytes[bytes.length - 6] ^ 0x40), tail[RECORD_SIZE - 6]);
+    }
+
+    @Test
+    public void fileWithoutHeaderIsMovedAside() throws IOException {
+        byte[] garbage = "not a leaderboard".getBytes(StandardCharsets.US_ASCII);
+        Files.write(file, garbage);
+
+        assertEquals(List.of(), reopen());
+        assertEquals(HEADER_SIZE, Files.size(file));
+        assertArrayEquals(garbage, Files.readAllBytes(dir.resolve("leaderboard.log.corrupt")));
+
+        // A second bad file does not overwrite the first one
+        Files.write(file, garbage);
+        reopen();
+        assertTrue(Files.exists(dir.resolve("leaderboard.log.corrupt.1")));
+    }
+
+    // -------------------------------------------------------------------------
+    // Helper Methods
+    // -------------------------------------------------------------------------
+
+    /** Opens and closes the log, returning the scores it replayed in order. */
+    private List<Integer> reopen() throws IOException {
+        List<Integer> scores = new ArrayList<>();
+        LeaderboardStore.open(file, entry -> scores.add(entry.getScore())).close();
+        return scores;
+    }
+
+    /** Returns the scores written in {@link #setUp()}, without one of them. */
+    private static List<Integer> scoresExcept(int missing) {
+        List<Integer> scores = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            if (i != missing) {
+                scores.add(i);
+            }
+        }
+        return scores;
+    }
+
+    /** Flips one bit of the byte at an offset in the log. */
+    private void flipByte(int offset) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[offset] ^= 0x40;
+        Files.write(file, bytes);
+    }
+}
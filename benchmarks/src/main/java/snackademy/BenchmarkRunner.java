@@ -0,0 +1,236 @@
+package snackademy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks and keeps their results over time.
+ * <p>
+ * Every run writes the full JMH report to {@code jmh-<timestamp>.json} and
+ * appends one line per benchmark to {@code history.csv} in the results
+ * directory. The new scores are then compared with the previous run in the
+ * history, and benchmarks that got slower by more than the threshold, and
+ * by more than the error margins of both runs, are reported as regressions.
+ * <p>
+ * Accepts the normal JMH command line options (for example a benchmark name
+ * pattern). System properties:
+ * <ul>
+ *   <li>{@code snackademy.results} — results directory (default {@code benchmarks/results})</li>
+ *   <li>{@code snackademy.threshold} — regression threshold in percent (default 10)</li>
+ *   <li>{@code snackademy.failOnRegression} — exit with status 1 on a regression</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Header of the history file. */
+    private static final String HEADER = "timestamp,benchmark,params,mode,score,error,unit";
+
+    /** Format of the run timestamps. */
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // -------------------------------------------------------------------------
+    // Main Method
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs the benchmarks, stores the results and compares them with the previous run.
+     *
+     * @param args JMH command line options
+     * @throws Exception if the benchmarks cannot be run or the results cannot be stored
+     */
+    public static void main(String[] args) throws Exception {
+        Path dir = Paths.get(System.getProperty("snackademy.results", "benchmarks/results"));
+        double threshold = Double.parseDouble(System.getProperty("snackademy.threshold", "10"));
+        Files.createDirectories(dir);
+
+        String stamp = LocalDateTime.now().format(STAMP);
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .resultFormat(ResultFormatType.JSON)
+            .result(dir.resolve("jmh-" + stamp + ".json").toString())
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        Path history = dir.resolve("history.csv");
+        Map<String, Row> previous = readLatestRun(history);
+        List<Row> current = new ArrayList<>();
+        for (RunResult result : results) {
+            current.add(toRow(stamp, result));
+        }
+        appendRun(history, current);
+
+        int regressions = compare(previous, current, threshold);
+        if (regressions > 0 && Boolean.getBoolean("snackademy.failOnRegression")) {
+            System.exit(1);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // History
+    // -------------------------------------------------------------------------
+
+    /** One benchmark result as stored in the history. */
+    private static final class Row {
+        final String timestamp;
+        final String benchmark;
+        final String params;
+        final String mode;
+        final double score;
+        final double error;
+        final String unit;
+
+        Row(String timestamp, String benchmark, String params, String mode,
+            double score, double error, String unit) {
+            this.timestamp = timestamp;
+            this.benchmark = benchmark;
+            this.params = params;
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        /** Identifies the same benchmark across runs. */
+        String key() {
+            return benchmark + " " + params + " " + mode;
+        }
+
+        String toCsv() {
+            return String.join(",", timestamp, benchmark, params, mode,
+                Double.toString(score), Double.toString(error), unit);
+        }
+
+        static Row fromCsv(String line) {
+            String[] f = line.split(",", -1);
+            return new Row(f[0], f[1], f[2], f[3],
+                Double.parseDouble(f[4]), Double.parseDouble(f[5]), f[6]);
+        }
+    }
+
+    /** Converts a JMH result into a history row. */
+    private static Row toRow(String stamp, RunResult result) {
+        BenchmarkParams params = result.getParams();
+        StringBuilder p = new StringBuilder();
+        for (String key : new TreeSet<>(params.getParamsKeys())) {
+            if (p.length() > 0) {
+                p.append(';');
+            }
+            p.append(key).append('=').append(params.getParam(key));
+        }
+        Result<?> primary = result.getPrimaryResult();
+        return new Row(stamp, params.getBenchmark(), p.toString(), params.getMode().shortLabel(),
+            primary.getScore(), primary.getScoreError(), primary.getScoreUnit());
+    }
+
+    /**
+     * Reads the rows of the most recent run in the history.
+     *
+     * @param history the history file
+     * @return rows of the latest run by key; empty if there is no history
+     * @throws IOException if the file cannot be read
+     */
+    private static Map<String, Row> readLatestRun(Path history) throws IOException {
+        Map<String, Row> latest = new LinkedHashMap<>();
+        if (!Files.exists(history)) {
+            return latest;
+        }
+        String latestStamp = null;
+        for (String line : Files.readAllLines(history, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.equals(HEADER)) {
+                continue;
+            }
+            Row row = Row.fromCsv(line);
+            if (!row.timestamp.equals(latestStamp)) {
+                latestStamp = row.timestamp; // Runs are appended in order
+                latest.clear();
+            }
+            latest.put(row.key(), row);
+        }
+        return latest;
+    }
+
+    /** Appends the rows of a run to the history, creating it if needed. */
+    private static void appendRun(Path history, List<Row> rows) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (!Files.exists(history)) {
+            lines.add(HEADER);
+        }
+        for (Row row : rows) {
+            lines.add(row.toCsv());
+        }
+        Files.write(history, lines, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // -------------------------------------------------------------------------
+    // Comparison
+    // -------------------------------------------------------------------------
+
+    /**
+     * Prints how every benchmark changed since the previous run.
+     *
+     * @param previous rows of the previous run by key
+     * @param current rows of this run
+     * @param threshold regression threshold in percent
+     * @return number of regressions
+     */
+    private static int compare(Map<String, Row> previous, List<Row> current, double threshold) {
+        if (previous.isEmpty()) {
+            System.out.println("No previous run in the history to compare with.");
+            return 0;
+        }
+
+        System.out.println("Compared with run " + previous.values().iterator().next().timestamp + ":");
+        int regressions = 0;
+        for (Row row : current) {
+            Row before = previous.get(row.key());
+            if (before == null || before.score == 0 || !before.unit.equals(row.unit)) {
+                System.out.println("  new       " + row.key());
+                continue;
+            }
+
+            // Throughput should go up; all other modes measure time and should go down
+            double change = (row.score - before.score) / before.score * 100;
+            double slowdown = row.mode.equals("thrpt") ? -change : change;
+            // Differences within the combined error margins are noise
+            double margin = before.error + row.error;
+            boolean noise = !Double.isNaN(margin) && Math.abs(row.score - before.score) <= margin;
+            String verdict = "ok";
+            if (!noise && slowdown > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (!noise && slowdown < -threshold) {
+                verdict = "faster";
+            }
+            System.out.printf(Locale.ROOT, "  %-10s %s: %.3f -> %.3f %s (%+.1f%%)%n",
+                verdict, row.key(), before.score, row.score, row.unit, change);
+        }
+        System.out.println(regressions + " regression(s) above " + threshold + "%.");
+        return regressions;
+    }
+}
@@ -0,0 +1,94 @@
+package snackademy;
+
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Collision checks of the player against N bookshelves.
+ * <p>
+ * Compares the grid query used by the game against a scan of all shelves,
+ * and measures a full simulation tick with movement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    /** Number of probe positions cycled through. */
+    private static final int PROBES = 1024;
+
+    @Param({"5", "20", "100", "1000"})
+    public int shelves;
+
+    private GameWorld world;
+    private List<ShelfModel> shelfList;
+    private int[] probeX;
+    private int[] probeY;
+    private final Rectangle feet = new Rectangle();
+    private int next;
+    private int direction = 1;
+
+    @Setup
+    public void setUp() {
+        world = new GameWorld(shelves, 5, 42L);
+        // Widen the level with the shelf count so the shelves do not all overlap
+        world.layout(Math.max(1000, 300 + shelves * 70), 650);
+        shelfList = world.getShelves();
+
+        Random random = new Random(7);
+        probeX = new int[PROBES];
+        probeY = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeX[i] = random.nextInt(world.getWidth() - GameWorld.PLAYER_SIZE);
+            probeY[i] = random.nextInt(world.getHeight() - GameWorld.PLAYER_SIZE);
+        }
+    }
+
+    /** Grid query, as used by the game. */
+    @Benchmark
+    public boolean gridQuery() {
+        int i = next++ & (PROBES - 1);
+        return world.collidesWithShelf(probeX[i], probeY[i]);
+    }
+
+    /** Scan of every shelf, the approach the grid replaced. */
+    @Benchmark
+    public boolean linearScan() {
+        int i = next++ & (PROBES - 1);
+        int size = GameWorld.PLAYER_SIZE;
+        feet.setBounds(probeX[i], probeY[i] + size * 7 / 8, size, size / 8);
+        for (int s = 0; s < shelfList.size(); s++) {
+            if (shelfList.get(s).intersects(feet)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** One simulation tick in which the player moves. */
+    @Benchmark
+    public boolean movingTick() {
+        if (world.isCaught()) {
+            world.reset();
+        }
+        direction = -direction;
+        world.setInput(direction, 0);
+        return world.tick();
+    }
+}
@@ -0,0 +1,48 @@
+package snackademy;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulation ticks of a level with many students and extra librarians.
+ * A tick at 120 ticks per second has a budget of about 8.3 ms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int npcs;
+
+    private GameWorld world;
+
+    @Setup
+    public void setUp() {
+        world = new GameWorld(20, 5, 42L);
+        world.layout(HeadlessSimulation.WIDTH, HeadlessSimulation.HEIGHT);
+        world.spawnNpcs(npcs - npcs / 10, npcs / 10);
+    }
+
+    /** One tick: the entity systems run over all students and librarians. */
+    @Benchmark
+    public boolean tick() {
+        if (world.isCaught()) {
+            world.reset();
+        }
+        return world.tick();
+    }
+}
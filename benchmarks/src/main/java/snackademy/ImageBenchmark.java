@@ -0,0 +1,71 @@
+package snackademy;
+
+import java.util.concurrent.TimeUnit;
+import javax.swing.ImageIcon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Image work done when sprites are created or the window is resized:
+ * {@link Player#horizontalFlip} and the {@code getScaledIcon} methods.
+ * Icons are scaled to the size they get in a 1000 x 650 game panel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ImageBenchmark {
+
+    private static final int WIDTH = 1000 / 8;
+    private static final int HEIGHT = 650 / 4;
+
+    private ImageIcon standing;
+    private Desk desk;
+    private Snackstation snackstation;
+    private Bookshelf bookshelf;
+    private Librarian librarian;
+
+    @Setup
+    public void setUp() {
+        standing = new ImageIcon(AssetManager.getImage("Standing.png"));
+        desk = new Desk(0, 0);
+        snackstation = new Snackstation(0, 0);
+        bookshelf = new Bookshelf(0, 0);
+        librarian = new Librarian(0, 0);
+    }
+
+    @Benchmark
+    public ImageIcon playerHorizontalFlip() {
+        return Player.horizontalFlip(standing);
+    }
+
+    @Benchmark
+    public ImageIcon deskScaledIcon() {
+        return desk.getScaledIcon(WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public ImageIcon snackstationScaledIcon() {
+        return snackstation.getScaledIcon(WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public ImageIcon bookshelfScaledIcon() {
+        return bookshelf.getScaledIcon(WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public ImageIcon librarianScaledIcon() {
+        return librarian.getScaledIcon("ATTENTIVE", WIDTH, HEIGHT);
+    }
+}
@@ -0,0 +1,63 @@
+package snackademy;
+
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Z-sorting of the game sprites by {@link UILayout#updateLayer()} after a
+ * player step. The player walks up and down the level in steps, so it keeps
+ * passing bookshelves and the Z-order keeps changing.
+ * Runs headless; the layout is built on the Event Dispatch Thread first.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class LayerSortBenchmark {
+
+    @Param({"5", "20", "100"})
+    public int shelves;
+
+    private UILayout ui;
+
+    /** Current player Y and the step it moves by. */
+    private int playerY;
+    private int step = 7;
+
+    @Setup
+    public void setUp() throws Exception {
+        SettingsScreen.bookshelfCount = shelves;
+        SettingsScreen.activeRendering = false;
+        SwingUtilities.invokeAndWait(() -> {
+            ui = new UILayout();
+            ui.setSize(1000, 700);
+            ui.getGamePanel().setSize(1000, 650);
+        });
+        SwingUtilities.invokeAndWait(() -> { }); // Let the queued layout run
+    }
+
+    @Benchmark
+    public UILayout updateLayer() {
+        playerY += step;
+        if (playerY < 0 || playerY > 550) {
+            step = -step;
+            playerY += 2 * step;
+        }
+        ui.getPlayer().moveTo(450, playerY);
+        ui.updateLayer();
+        return ui;
+    }
+}
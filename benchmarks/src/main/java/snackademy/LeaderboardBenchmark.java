@@ -0,0 +1,78 @@
+package snackademy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Leaderboard ordering: sorting a list of scores, building the
+ * {@link LeaderboardIndex}, and the queries the leaderboard screen makes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LeaderboardBenchmark {
+
+    @Param({"1000", "100000"})
+    public int entries;
+
+    private List<ScoreEntry> scores;
+    private LeaderboardIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        scores = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            scores.add(new ScoreEntry("player" + i, random.nextInt(200)));
+        }
+        index = new LeaderboardIndex();
+        index.addAll(scores);
+    }
+
+    /** Sorting a copy of all scores, as the leaderboard used to do on every open. */
+    @Benchmark
+    public List<ScoreEntry> sortList() {
+        List<ScoreEntry> copy = new ArrayList<>(scores);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    /** Building the index from all scores, as done once at startup. */
+    @Benchmark
+    public LeaderboardIndex buildIndex() {
+        LeaderboardIndex built = new LeaderboardIndex();
+        built.addAll(scores);
+        return built;
+    }
+
+    /** Looking up one page of 100 rows, as the leaderboard screen does. */
+    @Benchmark
+    public List<ScoreEntry> pageLookup() {
+        int pages = Math.max(1, entries / 100);
+        return index.page(next++ % pages, 100);
+    }
+
+    /** Ranking a new score. */
+    @Benchmark
+    public int rankOf() {
+        return index.rankOf(next++ % 200);
+    }
+}
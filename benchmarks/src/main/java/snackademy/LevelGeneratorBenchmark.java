@@ -0,0 +1,63 @@
+package snackademy;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generating and validating one level, with a level size that grows with the
+ * shelf count, and laying out a batch of levels on all cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelGeneratorBenchmark {
+
+    /** Number of levels in a batch. */
+    private static final int BATCH = 64;
+
+    @Param({"20", "100", "400"})
+    public int shelves;
+
+    private int width;
+    private int height;
+    private long[] seeds;
+    private long nextSeed;
+
+    @Setup
+    public void setUp() {
+        // About 40 pixels of level width per shelf, at least the headless level
+        width = Math.max(HeadlessSimulation.WIDTH, shelves * 40);
+        height = Math.max(HeadlessSimulation.HEIGHT, width / 4);
+        seeds = new long[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            seeds[i] = 42L + i;
+        }
+    }
+
+    /** Places and validates the shelves of one level with a new seed. */
+    @Benchmark
+    public GameWorld single() {
+        GameWorld world = new GameWorld(shelves, 5, nextSeed++);
+        world.layout(width, height);
+        return world;
+    }
+
+    /** Lays out a batch of levels in parallel. */
+    @Benchmark
+    public GameWorld[] batch() {
+        return LevelGenerator.generateBatch(seeds, shelves, 5, width, height);
+    }
+}
@@ -0,0 +1,42 @@
+package snackademy;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The librarian's per-tick state update (formerly {@code Librarian.updateStatus}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LibrarianBenchmark {
+
+    private LibrarianModel librarian;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        librarian = new LibrarianModel(new SplittableRandom(42));
+        now = 0;
+    }
+
+    /** One update, advancing simulation time by one tick (about 8 ms). */
+    @Benchmark
+    public boolean update() {
+        now += 8;
+        return librarian.update(now);
+    }
+}
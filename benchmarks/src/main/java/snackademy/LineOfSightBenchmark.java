@@ -0,0 +1,65 @@
+package snackademy;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sight checks of many attentive librarians against the player, once after
+ * the player moved and once with the cached answers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineOfSightBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int watchers;
+
+    private GameWorld world;
+    private EntityRegistry npcs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        world = new GameWorld(20, 5, 42L);
+        world.layout(HeadlessSimulation.WIDTH, HeadlessSimulation.HEIGHT);
+        world.spawnNpcs(0, watchers);
+
+        // Make every librarian attentive, looking in a random direction
+        npcs = world.getNpcs();
+        for (int i = 0; i < npcs.size(); i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            npcs.facingX[i] = (float) Math.cos(angle);
+            npcs.facingY[i] = (float) Math.sin(angle);
+            npcs.state[i] = (byte) LibrarianModel.State.ATTENTIVE.ordinal();
+        }
+        npcs.attentiveLibrarians = npcs.size();
+    }
+
+    /** Every librarian casts its rays again, as after a player move. */
+    @Benchmark
+    public boolean afterMove() {
+        npcs.invalidateSight();
+        return EntitySystems.watch(npcs, world.getLineOfSight(), world.getPlayerFeet());
+    }
+
+    /** Nothing moved: every librarian answers from its cache. */
+    @Benchmark
+    public boolean cached() {
+        return EntitySystems.watch(npcs, world.getLineOfSight(), world.getPlayerFeet());
+    }
+}
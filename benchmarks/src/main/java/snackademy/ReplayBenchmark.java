@@ -0,0 +1,61 @@
+package snackademy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A whole recorded session replayed headlessly, as a load test made from
+ * real input. Pass a recording from the game with
+ * {@code -p replayFile=<file>}; without one, a 60 second courier session
+ * is recorded at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    @Param({""})
+    public String replayFile;
+
+    private Replay replay;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (!replayFile.isEmpty()) {
+            replay = Replay.read(Paths.get(replayFile));
+            return;
+        }
+
+        GameWorld world = new GameWorld(10, 5, 42L);
+        world.layout(HeadlessSimulation.WIDTH, HeadlessSimulation.HEIGHT);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(bytes, world, 0, 0);
+        HeadlessSimulation.run(world, HeadlessSimulation.courier(),
+            60L * GameLoop.TICKS_PER_SECOND, recorder);
+        recorder.finish(world.getTickCount());
+        replay = new Replay(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    /** Replays the session from its first to its last tick. */
+    @Benchmark
+    public int replaySession() {
+        return HeadlessSimulation.replay(replay).snacksDelivered;
+    }
+}